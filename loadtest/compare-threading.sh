@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Compares platform and virtual request threads against slow catalog/user stubs.
+# Requirements: JDK 21 on PATH, hey (https://github.com/rakyll/hey), curl.
+# Usage: loadtest/compare-threading.sh [delay-ms] [concurrency] [duration]
+set -euo pipefail
+
+DELAY_MS=${1:-200}
+CONCURRENCY=${2:-400}
+DURATION=${3:-60s}
+APP_PORT=18080
+STUB_PORT=18089
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+RESULTS="$ROOT/target/loadtest"
+WIREMOCK_JAR=$(find ~/.m2/repository/com/github/tomakehurst/wiremock-jre8-standalone -name '*.jar' | head -1)
+
+mkdir -p "$RESULTS"
+cd "$ROOT"
+./mvnw -q -Pjava21 -DskipTests package
+APP_JAR=$(ls target/cartMicroservice-*.jar | grep -v original | head -1)
+
+java -jar "$WIREMOCK_JAR" --port "$STUB_PORT" --root-dir loadtest/stubs \
+    > "$RESULTS/stub.log" 2>&1 &
+STUB_PID=$!
+trap 'kill $STUB_PID 2>/dev/null || true' EXIT
+until curl -sf "http://localhost:$STUB_PORT/__admin/mappings" > /dev/null; do sleep 1; done
+curl -sf -X POST "http://localhost:$STUB_PORT/__admin/settings" -d "{\"fixedDelay\": $DELAY_MS}" > /dev/null
+
+run() {
+    local mode=$1 virtual=$2
+    VIRTUAL_THREADS=$virtual java -Djdk.tracePinnedThreads=short -jar "$APP_JAR" \
+        --spring.profiles.active=dev \
+        --server.port="$APP_PORT" \
+        --catalog.api.base-url="http://localhost:$STUB_PORT" \
+        --users.api.base-url="http://localhost:$STUB_PORT" \
+        --management.endpoints.web.exposure.include=health,metrics \
+        --cart.pricing.cache.max-size=0 \
+        --cart.tax.cache.user-max-size=0 \
+        --cart.snapshot.cache.enabled=false \
+        --cart.etag.max-staleness=PT0S \
+        --cart.stock.cache.enabled=false \
+        --catalog.coalescing.enabled=false \
+        > "$RESULTS/app-$mode.log" 2>&1 &
+    local app_pid=$!
+    until curl -sf "http://localhost:$APP_PORT/actuator/health" > /dev/null; do sleep 1; done
+
+    hey -z 10s -c "$CONCURRENCY" "http://localhost:$APP_PORT/carts/1" > /dev/null
+    hey -z "$DURATION" -c "$CONCURRENCY" "http://localhost:$APP_PORT/carts/1" > "$RESULTS/hey-$mode.txt"
+    curl -sf "http://localhost:$APP_PORT/actuator/metrics/jvm.threads.live" > "$RESULTS/threads-$mode.json" || true
+    curl -sf "http://localhost:$APP_PORT/actuator/metrics/jvm.threads.virtual.pinned" > "$RESULTS/pinned-$mode.json" || true
+
+    kill "$app_pid"
+    wait "$app_pid" 2>/dev/null || true
+}
+
+run platform false
+run virtual true
+
+for mode in platform virtual; do
+    echo "== $mode =="
+    grep -E "Requests/sec|Average|Slowest|99% in|Status code" -A0 "$RESULTS/hey-$mode.txt" || true
+    grep -E "\[[0-9]+\]" "$RESULTS/hey-$mode.txt" || true
+    grep -c "pinned" "$RESULTS/app-$mode.log" | sed 's/^/pinning warnings: /' || true
+done
+echo "Full reports in $RESULTS"
@@ -0,0 +1,56 @@
+package com.gftworkshop.cartMicroservice.benchmarks;
+
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.api.dto.Country;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartCalculator;
+import com.gftworkshop.cartMicroservice.cartmanagement.ShippingTierRegistry;
+import com.gftworkshop.cartMicroservice.config.ShippingProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CartCalculatorBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int lines;
+
+    private CartCalculator cartCalculator;
+    private List<Product> products;
+    private double totalWeight;
+    private Country country;
+
+    @Setup
+    public void setUp() {
+        cartCalculator = new CartCalculator(null, null, new ShippingTierRegistry(new ShippingProperties()), null,
+                Runnable::run, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        products = CartFixtures.products(lines);
+        totalWeight = cartCalculator.computeTotalWeight(products);
+        country = new Country(1L, 21.0);
+    }
+
+    @Benchmark
+    public BigDecimal computeProductTotal() {
+        return cartCalculator.computeProductTotal(products);
+    }
+
+    @Benchmark
+    public double computeTotalWeight() {
+        return cartCalculator.computeTotalWeight(products);
+    }
+
+    @Benchmark
+    public BigDecimal computeShippingCost() {
+        return cartCalculator.computeShippingCost(totalWeight);
+    }
+
+    @Benchmark
+    public BigDecimal computeShippingCostForCountry() {
+        return cartCalculator.computeShippingCost(totalWeight, country);
+    }
+}
@@ -0,0 +1,64 @@
+package com.gftworkshop.cartMicroservice.benchmarks;
+
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+final class CartFixtures {
+
+    private static final long SEED = 42L;
+
+    private CartFixtures() {
+    }
+
+    static Cart cart(int lines) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Cart cart = Cart.builder()
+                .id(1L)
+                .userId(1L)
+                .updatedAt(LocalDate.now())
+                .cartProducts(new ArrayList<>(lines))
+                .build();
+        for (long productId = 1; productId <= lines; productId++) {
+            cart.getCartProducts().add(CartProduct.builder()
+                    .id(productId)
+                    .cart(cart)
+                    .productId(productId)
+                    .productName("Product " + productId)
+                    .productDescription("Description " + productId)
+                    .quantity(1 + random.nextInt(5))
+                    .price(BigDecimal.valueOf(100 + random.nextInt(10_000), 2))
+                    .build());
+        }
+        return cart;
+    }
+
+    static List<Product> products(int lines) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Product> products = new ArrayList<>(lines);
+        for (long productId = 1; productId <= lines; productId++) {
+            products.add(Product.builder()
+                    .id(productId)
+                    .name("Product " + productId)
+                    .price(BigDecimal.valueOf(100 + random.nextInt(10_000), 2))
+                    .currentStock(10 + random.nextInt(100))
+                    .weight(0.1 + random.nextDouble() * 2)
+                    .build());
+        }
+        return products;
+    }
+
+    static Map<Long, Product> productMap(List<Product> products) {
+        Map<Long, Product> productMap = new HashMap<>(products.size() * 2);
+        products.forEach(product -> productMap.put(product.getId(), product));
+        return productMap;
+    }
+}
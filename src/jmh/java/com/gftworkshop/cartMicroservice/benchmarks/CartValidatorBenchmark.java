@@ -0,0 +1,35 @@
+package com.gftworkshop.cartMicroservice.benchmarks;
+
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartValidator;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CartValidatorBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int lines;
+
+    private CartValidator cartValidator;
+    private Cart cart;
+    private Map<Long, Product> productMap;
+
+    @Setup
+    public void setUp() {
+        cartValidator = new CartValidator(null, null);
+        cart = CartFixtures.cart(lines);
+        productMap = CartFixtures.productMap(CartFixtures.products(lines));
+    }
+
+    @Benchmark
+    public Cart checkStockForCartProducts() {
+        cartValidator.checkStockForCartProducts(cart, productMap);
+        return cart;
+    }
+}
@@ -0,0 +1,36 @@
+package com.gftworkshop.cartMicroservice.benchmarks;
+
+import com.gftworkshop.cartMicroservice.api.dto.CartDto;
+import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.entitymapper.EntityMapper;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EntityMapperBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int lines;
+
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        cart = CartFixtures.cart(lines);
+    }
+
+    @Benchmark
+    public CartDto convertCartToDto() {
+        return EntityMapper.convertCartToDto(cart);
+    }
+
+    @Benchmark
+    public List<CartProductDto> convertToDtoList() {
+        return EntityMapper.convertToDtoList(cart.getCartProducts());
+    }
+}
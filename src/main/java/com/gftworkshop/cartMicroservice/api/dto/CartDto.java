@@ -19,5 +19,6 @@ public class CartDto {
     private Long userId;
     private List<CartProduct> cartProducts;
     private BigDecimal totalPrice;
+    private Long version;
 
 }
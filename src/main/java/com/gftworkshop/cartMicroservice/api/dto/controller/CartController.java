@@ -4,34 +4,66 @@ import com.gftworkshop.cartMicroservice.api.dto.CartDto;
 import com.gftworkshop.cartMicroservice.api.dto.Shrek;
 import com.gftworkshop.cartMicroservice.api.dto.UpdatedCartProductDto;
 import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartPage;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
+import com.gftworkshop.cartMicroservice.services.RemovedCartProduct;
 import com.gftworkshop.cartMicroservice.services.impl.CartProductServiceImpl;
 import com.gftworkshop.cartMicroservice.services.impl.CartServiceImpl;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
 @Validated
 public class CartController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int MAX_BULK_LINES = 200;
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private CartServiceImpl cartService;
     private CartProductServiceImpl cartProductService;
+    private Duration exportTimeout;
 
-    public CartController(CartServiceImpl cartService, CartProductServiceImpl cartProductService) {
+    public CartController(CartServiceImpl cartService, CartProductServiceImpl cartProductService,
+                          @Value("${cart.export.timeout:PT30M}") Duration exportTimeout) {
         this.cartService = cartService;
         this.cartProductService = cartProductService;
+        this.exportTimeout = exportTimeout;
     }
 
     @GetMapping("/carts")
-    public ResponseEntity<List<Cart>> getAllCarts() {
-        List<Cart> savedCart = cartService.fetchAllCarts();
-        return ResponseEntity.ok(savedCart);
+    public ResponseEntity<List<Cart>> getAllCarts(@RequestParam(value = "after", required = false) Long after,
+                                                  @RequestParam(value = "size", required = false) Integer size) {
+        CartPage page = cartService.fetchCartPage(after, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return response.body(page.carts());
+    }
+
+    @GetMapping("/carts/export")
+    public WebAsyncTask<Void> exportCarts(HttpServletResponse response) {
+        response.setContentType(NDJSON.toString());
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            cartService.exportCarts(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
     }
 
     @PostMapping("/carts/{id}")
@@ -43,37 +75,59 @@ public class CartController {
 
 
     @GetMapping("/carts/{id}")
-    public ResponseEntity<CartDto> getCartById(@PathVariable("id") String id) {
+    public ResponseEntity<CartDto> getCartById(@PathVariable("id") String id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Long idCart = Long.parseLong(id);
+        Long knownVersion = CartETag.parseIfNoneMatch(ifNoneMatch);
+        if (knownVersion != null && cartService.isCartUnchanged(idCart, knownVersion)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(CartETag.of(knownVersion)).build();
+        }
         CartDto receivedCart = cartService.fetchValidatedCart(idCart);
-        return ResponseEntity.ok(receivedCart);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (receivedCart.getVersion() != null) {
+            response.eTag(CartETag.of(receivedCart.getVersion()));
+        }
+        return response.body(receivedCart);
     }
 
     @DeleteMapping("/carts/{id}")
-    public ResponseEntity<Void> removeCartById(@PathVariable("id") String id) {
+    public ResponseEntity<Void> removeCartById(@PathVariable("id") String id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Long idCart = Long.parseLong(id);
-        cartService.emptyCart(idCart);
-        return ResponseEntity.ok().build();
+        long version = cartService.emptyCart(idCart, CartETag.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(CartETag.of(version)).build();
 
     }
 
     @PostMapping("/carts/products")
-    public ResponseEntity<Void> addProduct(@Valid @RequestBody CartProduct cartProduct) {
-        cartService.addProductToCart(cartProduct);
-        return ResponseEntity.created(URI.create("/carts/products")).build();
+    public ResponseEntity<Void> addProduct(@Valid @RequestBody CartProduct cartProduct,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long version = cartService.addProductToCart(cartProduct, CartETag.parseIfMatch(ifMatch));
+        return ResponseEntity.created(URI.create("/carts/products")).eTag(CartETag.of(version)).build();
+    }
+
+    @PostMapping("/carts/{id}/products")
+    public ResponseEntity<Void> addProducts(@PathVariable("id") String id,
+                                            @RequestBody @Size(min = 1, max = MAX_BULK_LINES) List<@Valid CartProduct> cartProducts,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long idCart = Long.parseLong(id);
+        long version = cartService.addProductsToCart(idCart, cartProducts, CartETag.parseIfMatch(ifMatch));
+        return ResponseEntity.created(URI.create("/carts/" + idCart)).eTag(CartETag.of(version)).build();
     }
 
     @PatchMapping("/carts/products")
-    public ResponseEntity<Void> updateProduct(@Valid @RequestBody UpdatedCartProductDto cartProduct) {
-        cartProductService.updateQuantity(cartProduct.getId(), cartProduct.getQuantity());
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Void> updateProduct(@Valid @RequestBody UpdatedCartProductDto cartProduct,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long version = cartProductService.updateQuantity(cartProduct.getId(), cartProduct.getQuantity(), CartETag.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(CartETag.of(version)).build();
     }
 
     @DeleteMapping("/carts/products/{id}")
-    public ResponseEntity<CartProductDto> removeProductById(@PathVariable("id") String id) {
+    public ResponseEntity<CartProductDto> removeProductById(@PathVariable("id") String id,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Long idCart = Long.parseLong(id);
-        CartProductDto deletedCartProduct = cartProductService.removeProduct(idCart);
-        return ResponseEntity.ok(deletedCartProduct);
+        RemovedCartProduct removed = cartProductService.removeProduct(idCart, CartETag.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(CartETag.of(removed.cartVersion())).body(removed.cartProduct());
     }
 
     @GetMapping("/shrek")
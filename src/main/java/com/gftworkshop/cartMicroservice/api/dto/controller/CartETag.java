@@ -0,0 +1,49 @@
+package com.gftworkshop.cartMicroservice.api.dto.controller;
+
+import com.gftworkshop.cartMicroservice.exceptions.CartVersionConflictException;
+
+public final class CartETag {
+
+    private static final String WEAK_PREFIX = "W/";
+    private static final String ANY = "*";
+
+    private CartETag() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        Long version = parse(ifMatch);
+        if (version == null) {
+            throw new CartVersionConflictException("If-Match " + ifMatch + " does not match any cart version");
+        }
+        return version;
+    }
+
+    public static Long parseIfNoneMatch(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return null;
+        }
+        return parse(ifNoneMatch);
+    }
+
+    private static Long parse(String header) {
+        String tag = header.trim();
+        if (tag.startsWith(WEAK_PREFIX)) {
+            tag = tag.substring(WEAK_PREFIX.length());
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.gftworkshop.cartMicroservice.api.dto.controller;
+
+import com.gftworkshop.cartMicroservice.api.dto.CartDto;
+import com.gftworkshop.cartMicroservice.services.ReactiveCartService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+public class ReactiveCartController {
+
+    private final ReactiveCartService reactiveCartService;
+
+    public ReactiveCartController(ReactiveCartService reactiveCartService) {
+        this.reactiveCartService = reactiveCartService;
+    }
+
+    @GetMapping("/reactive/carts/{id}")
+    public Mono<CartDto> getCartById(@PathVariable("id") String id) {
+        Long idCart = Long.parseLong(id);
+        return reactiveCartService.fetchValidatedCart(idCart);
+    }
+}
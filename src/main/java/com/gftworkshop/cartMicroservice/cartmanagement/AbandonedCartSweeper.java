@@ -0,0 +1,73 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "cart.abandoned-carts.sweep-enabled", havingValue = "true", matchIfMissing = true)
+public class AbandonedCartSweeper {
+
+    private final CartManager cartManager;
+    private final Period abandonedAfter;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger lastFound = new AtomicInteger(0);
+    private final Timer sweepTimer;
+    private final Counter foundCounter;
+    private final Counter skippedCounter;
+
+    public AbandonedCartSweeper(CartManager cartManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${cart.abandoned-carts.abandoned-after:P1D}") Period abandonedAfter) {
+        this.cartManager = cartManager;
+        this.abandonedAfter = abandonedAfter;
+        this.sweepTimer = Timer.builder("cart.abandoned.sweep")
+                .description("Duration of the abandoned cart scan")
+                .register(meterRegistry);
+        this.foundCounter = Counter.builder("cart.abandoned.found")
+                .description("Abandoned carts found by the sweeper")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("cart.abandoned.sweep.skipped")
+                .description("Sweeps skipped because a previous one was still running")
+                .register(meterRegistry);
+        Gauge.builder("cart.abandoned.last", lastFound, AtomicInteger::get)
+                .description("Abandoned carts found by the last sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.abandoned-carts.sweep-interval:PT15M}",
+            initialDelayString = "${cart.abandoned-carts.initial-delay:PT1M}")
+    public void sweep() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Abandoned cart sweep already in progress, skipping");
+            skippedCounter.increment();
+            return;
+        }
+        try {
+            LocalDate thresholdDate = LocalDate.now().minus(abandonedAfter);
+            int found = sweepTimer.record(() -> cartManager.identifyAbandonedCarts(thresholdDate));
+            lastFound.set(found);
+            foundCounter.increment(found);
+        } catch (RuntimeException e) {
+            log.error("Abandoned cart sweep failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+}
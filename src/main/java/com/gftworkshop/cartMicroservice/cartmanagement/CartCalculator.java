@@ -1,46 +1,156 @@
 package com.gftworkshop.cartMicroservice.cartmanagement;
 
 import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.api.dto.Country;
 import com.gftworkshop.cartMicroservice.api.dto.Product;
 import com.gftworkshop.cartMicroservice.api.dto.User;
 import com.gftworkshop.cartMicroservice.entitymapper.EntityMapper;
 import com.gftworkshop.cartMicroservice.exceptions.CartNotFoundException;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.repositories.CartRepository;
-import com.gftworkshop.cartMicroservice.services.ProductService;
-import com.gftworkshop.cartMicroservice.services.UserService;
-import lombok.AllArgsConstructor;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.AbstractMap.SimpleEntry;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
-@AllArgsConstructor
 public class CartCalculator {
 
-    private final ProductService productService;
-    private final UserService userService;
+    private final VolumePriceCache volumePriceCache;
+    private final UserCountryCache userCountryCache;
+    private final ShippingTierRegistry shippingTierRegistry;
     private final CartRepository cartRepository;
+    private final AsyncTaskExecutor remoteCallExecutor;
+    private final Duration userTimeout;
+    private final Duration pricingTimeout;
 
+    public CartCalculator(VolumePriceCache volumePriceCache,
+                          UserCountryCache userCountryCache,
+                          ShippingTierRegistry shippingTierRegistry,
+                          CartRepository cartRepository,
+                          @Qualifier("remoteCallExecutor") AsyncTaskExecutor remoteCallExecutor,
+                          @Value("${cart.remote-calls.user-timeout:PT2S}") Duration userTimeout,
+                          @Value("${cart.remote-calls.pricing-timeout:PT3S}") Duration pricingTimeout) {
+        this.volumePriceCache = volumePriceCache;
+        this.userCountryCache = userCountryCache;
+        this.shippingTierRegistry = shippingTierRegistry;
+        this.cartRepository = cartRepository;
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.userTimeout = userTimeout;
+        this.pricingTimeout = pricingTimeout;
+    }
+
+    @Timed(value = CartMetrics.PIPELINE, extraTags = {CartMetrics.STAGE, "calculate-total"})
     public BigDecimal calculateCartTotal(Long cartId, Long userId) {
-        User user = userService.getUserById(userId);
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new CartNotFoundException(CartErrorMessages.CART_NOT_FOUND + cartId));
+        return calculateCartTotal(cart, userId);
+    }
+
+    @Timed(value = CartMetrics.PIPELINE, extraTags = {CartMetrics.STAGE, "calculate-total"})
+    public BigDecimal calculateCartTotal(CartContext context) {
+        return calculateCartTotal(context.getCart(), context.getUserId());
+    }
 
+    public BigDecimal calculateCartTotal(Cart cart, Long userId) {
         List<CartProductDto> cartProductDtos = EntityMapper.convertToDtoList(cart.getCartProducts());
-        List<Product> products = productService.getProductByIdWithDiscountedPrice(cartProductDtos);
 
+        CompletableFuture<Country> countryFuture = userCountryCache.getCachedCountry(userId)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> callAsync(() -> userCountryCache.getCountry(userId), userTimeout, "USER"));
+        CompletableFuture<List<Product>> productsFuture =
+                callAsync(() -> volumePriceCache.getDiscountedProducts(cartProductDtos), pricingTimeout, "CATALOG");
+        awaitBoth(countryFuture, productsFuture);
+
+        return computeCartTotal(productsFuture.join(), countryFuture.join());
+    }
+
+    public BigDecimal computeCartTotal(List<Product> products, Country country) {
         BigDecimal totalProductCost = computeProductTotal(products);
-        BigDecimal tax = computeTax(totalProductCost, user);
-        BigDecimal shippingCost = computeShippingCost(computeTotalWeight(products));
+        BigDecimal tax = computeTax(totalProductCost, country);
+        BigDecimal shippingCost = computeShippingCost(computeTotalWeight(products), country);
 
         return totalProductCost.add(tax).add(shippingCost);
     }
 
+    private <T> CompletableFuture<T> callAsync(Supplier<T> call, Duration timeout, String service) {
+        CompletableFuture<T> response = new CompletableFuture<>();
+        Future<?> task = remoteCallExecutor.submit(() -> {
+            try {
+                response.complete(call.get());
+            } catch (RuntimeException | Error e) {
+                response.completeExceptionally(e);
+            }
+        });
+        CompletableFuture<T> result = response
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((value, failure) -> {
+                    if (failure == null) {
+                        return value;
+                    }
+                    throw translateFailure(failure, timeout, service);
+                });
+        result.whenComplete((value, failure) -> {
+            if (failure != null) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private void awaitBoth(CompletableFuture<?> first, CompletableFuture<?> second) {
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        first.whenComplete((result, failure) -> cancelOnFailure(failure, firstFailure, second));
+        second.whenComplete((result, failure) -> cancelOnFailure(failure, firstFailure, first));
+        try {
+            CompletableFuture.allOf(first, second).join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable failure = firstFailure.get() != null ? firstFailure.get() : unwrap(e);
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ExternalMicroserviceException(failure.getMessage());
+        }
+    }
+
+    private void cancelOnFailure(Throwable failure, AtomicReference<Throwable> firstFailure, CompletableFuture<?> other) {
+        if (failure != null && !(failure instanceof CancellationException)
+                && firstFailure.compareAndSet(null, unwrap(failure))) {
+            other.cancel(true);
+        }
+    }
+
+    private RuntimeException translateFailure(Throwable failure, Duration timeout, String service) {
+        Throwable cause = unwrap(failure);
+        if (cause instanceof TimeoutException) {
+            return new ExternalMicroserviceException(service + " MICROSERVICE EXCEPTION: no response within " + timeout.toMillis() + " ms");
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new ExternalMicroserviceException(service + " MICROSERVICE EXCEPTION: " + cause.getMessage());
+    }
+
+    private Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
     public BigDecimal computeProductTotal(List<Product> products) {
         return products.stream()
                 .map(Product::getPrice)
@@ -48,29 +158,19 @@ public class CartCalculator {
     }
 
     public BigDecimal computeTax(BigDecimal total, User user) {
-        return total.multiply(BigDecimal.valueOf(user.getCountry().getTax() / 100.0));
+        return computeTax(total, user.getCountry());
     }
 
-    public BigDecimal computeShippingCost(double totalWeight) {
-        List<SimpleEntry<Double, BigDecimal>> weightCosts = createWeightCostList();
-        return findShippingCostForWeight(totalWeight, weightCosts);
+    public BigDecimal computeTax(BigDecimal total, Country country) {
+        return total.multiply(BigDecimal.valueOf(country.getTax() / 100.0));
     }
 
-    public List<SimpleEntry<Double, BigDecimal>> createWeightCostList() {
-        return List.of(
-                new SimpleEntry<>(5.0, new BigDecimal("5")),
-                new SimpleEntry<>(10.0, new BigDecimal("10")),
-                new SimpleEntry<>(20.0, new BigDecimal("20")),
-                new SimpleEntry<>(Double.MAX_VALUE, new BigDecimal("50"))
-        );
+    public BigDecimal computeShippingCost(double totalWeight) {
+        return shippingTierRegistry.costFor(totalWeight);
     }
 
-    public BigDecimal findShippingCostForWeight(double totalWeight, List<SimpleEntry<Double, BigDecimal>> weightCosts) {
-        return weightCosts.stream()
-                .filter(entry -> totalWeight <= entry.getKey())
-                .map(SimpleEntry::getValue)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Invalid weight: " + totalWeight));
+    public BigDecimal computeShippingCost(double totalWeight, Country country) {
+        return shippingTierRegistry.costFor(country == null ? null : country.getId(), totalWeight);
     }
 
     public double computeTotalWeight(List<Product> products) {
@@ -0,0 +1,24 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class CartContext {
+
+    private final Cart cart;
+    private final Map<Long, Product> productMap;
+
+    public Long getCartId() {
+        return cart.getId();
+    }
+
+    public Long getUserId() {
+        return cart.getUserId();
+    }
+}
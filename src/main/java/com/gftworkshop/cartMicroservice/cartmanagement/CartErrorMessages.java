@@ -11,4 +11,5 @@ public class CartErrorMessages {
     public static final String FOUND_ABANDONED_CARTS = "Found {} abandoned carts before ";
     public static final String ABANDONED_CART = "Abandoned cart: {}, at ";
     public static final String CART_NOT_FOUND = "Cart with ID not found";
+    public static final String PRODUCT_NOT_FOUND = "Product not found in catalog. Product ID: ";
 }
@@ -0,0 +1,41 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class CartFreshnessCache {
+
+    private final Cache<Long, Long> validatedVersions;
+
+    public CartFreshnessCache(MeterRegistry meterRegistry,
+                              @Value("${cart.etag.max-staleness:PT30S}") Duration maxStaleness,
+                              @Value("${cart.etag.max-size:100000}") long maxSize) {
+        this.validatedVersions = Caffeine.newBuilder()
+                .expireAfterWrite(maxStaleness)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, validatedVersions, "validatedCartVersions");
+    }
+
+    public void markValidated(Long cartId, Long version) {
+        if (cartId != null && version != null) {
+            validatedVersions.put(cartId, version);
+        }
+    }
+
+    public boolean isValidated(Long cartId, Long version) {
+        return version != null && version.equals(validatedVersions.getIfPresent(cartId));
+    }
+
+    public void invalidate(Long cartId) {
+        validatedVersions.invalidate(cartId);
+    }
+}
@@ -0,0 +1,6 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+public interface CartInvalidationBus {
+
+    void publish(Long cartId);
+}
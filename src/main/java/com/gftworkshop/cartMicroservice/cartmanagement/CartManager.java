@@ -7,16 +7,29 @@ import com.gftworkshop.cartMicroservice.exceptions.CartNotFoundException;
 import com.gftworkshop.cartMicroservice.exceptions.UserWithCartException;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
+import com.gftworkshop.cartMicroservice.repositories.AbandonedCart;
+import com.gftworkshop.cartMicroservice.repositories.CartProductBatchRepository;
 import com.gftworkshop.cartMicroservice.repositories.CartProductRepository;
 import com.gftworkshop.cartMicroservice.repositories.CartRepository;
 import com.gftworkshop.cartMicroservice.services.ProductService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -26,17 +39,31 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class CartManager {
 
+    static final String REFRESH_METRIC = "cart.products.refresh";
+    private static final int PRICE_SCALE = 2;
+
     private final CartRepository cartRepository;
     private final CartProductRepository cartProductRepository;
     private final ProductService productService;
     private final CartCalculator cartCalculator;
+    private final CartProductBatchRepository cartProductBatchRepository;
+    private final MeterRegistry meterRegistry;
+    private final CartSnapshotCache cartSnapshotCache;
+    private final CartInvalidationBus cartInvalidationBus;
 
-    public void handleCartProduct(CartProduct cartProduct) {
-        Optional<CartProduct> existingCartProduct = findExistingCartProduct(cartProduct);
-        if (existingCartProduct.isPresent()) {
-            updateExistingCartProduct(existingCartProduct.get(), cartProduct);
-        } else {
-            addNewCartProduct(cartProduct);
+    public int handleCartProduct(CartProduct cartProduct) {
+        Long cartId = cartProduct.getCart().getId();
+        cartInvalidationBus.publish(cartId);
+        try {
+            return cartProductBatchRepository.upsertQuantity(cartId, cartProduct);
+        } catch (DuplicateKeyException e) {
+            log.debug("Concurrent insert of product {} in cart {}, retrying as an increment", cartProduct.getProductId(), cartId);
+            return cartProductBatchRepository.upsertQuantity(cartId, cartProduct);
+        } catch (DataIntegrityViolationException e) {
+            if (cartRepository.existsById(cartId)) {
+                throw e;
+            }
+            throw new CartNotFoundException("Cart with ID " + cartId + " not found");
         }
     }
 
@@ -44,34 +71,52 @@ public class CartManager {
         cartRepository.save(cart);
     }
 
-    public void checkForAbandonedCarts() {
-        LocalDate thresholdDate = LocalDate.now().minusDays(1);
-        identifyAbandonedCarts(thresholdDate);
+    public long bumpCartVersion(Long cartId, Long expectedVersion) {
+        return cartRepository.incrementVersion(cartId, expectedVersion);
     }
 
-    public Optional<CartProduct> findExistingCartProduct(CartProduct cartProduct) {
-        return cartProductRepository.findByCartIdAndProductId(cartProduct.getCart().getId(), cartProduct.getProductId());
+    public Optional<Long> fetchCartVersion(Long cartId) {
+        return cartRepository.findVersionById(cartId);
     }
 
-    public void updateExistingCartProduct(CartProduct existingCartProduct, CartProduct newCartProduct) {
-        existingCartProduct.setQuantity(existingCartProduct.getQuantity() + newCartProduct.getQuantity());
-        cartProductRepository.save(existingCartProduct);
+    public Map<Long, CartProduct> mergeCartProducts(List<CartProduct> cartProducts) {
+        Map<Long, CartProduct> merged = new LinkedHashMap<>();
+        cartProducts.forEach(cartProduct -> merged.merge(cartProduct.getProductId(), cartProduct, (first, duplicate) -> {
+            first.setQuantity(first.getQuantity() + duplicate.getQuantity());
+            return first;
+        }));
+        return merged;
     }
 
-    public void addNewCartProduct(CartProduct cartProduct) {
-        Cart cart = fetchCartById(cartProduct.getCart().getId());
-        addCartProduct(cart, cartProduct);
+    public Map<Long, CartProduct> findExistingCartProducts(Long cartId, Collection<Long> productIds) {
+        return cartProductRepository.findByCartIdAndProductIdIn(cartId, productIds).stream()
+                .collect(Collectors.toMap(CartProduct::getProductId, Function.identity()));
     }
 
-    public void addCartProduct(Cart cart, CartProduct cartProduct) {
-        cart.getCartProducts().add(cartProduct);
-        cartProduct.setCart(cart);
-        cartProductRepository.save(cartProduct);
+    public void saveCartProducts(Long cartId, Collection<CartProduct> cartProducts, Map<Long, CartProduct> existingCartProducts) {
+        Cart cart = cartRepository.getReferenceById(cartId);
+        List<CartProduct> newCartProducts = new ArrayList<>();
+        Map<Long, Integer> updatedQuantities = new LinkedHashMap<>();
+        cartProducts.forEach(cartProduct -> {
+            CartProduct existing = existingCartProducts.get(cartProduct.getProductId());
+            if (existing == null) {
+                cartProduct.setId(null);
+                cartProduct.setVersion(null);
+                cartProduct.setCart(cart);
+                newCartProducts.add(cartProduct);
+            } else {
+                updatedQuantities.put(existing.getId(), existing.getQuantity() + cartProduct.getQuantity());
+            }
+        });
+        cartProductBatchRepository.updateQuantities(updatedQuantities);
+        cartProductRepository.saveAll(newCartProducts);
+        cartInvalidationBus.publish(cartId);
+        log.debug("Cart {}: {} lines updated, {} lines added", cartId, updatedQuantities.size(), newCartProducts.size());
     }
 
     public Cart fetchCartById(Long cartId) {
-        return cartRepository.findById(cartId)
-                .orElseThrow(() -> new CartNotFoundException("Cart with ID " + cartId + " not found"));
+        return cartSnapshotCache.getCart(cartId, id -> cartRepository.findById(id)
+                .orElseThrow(() -> new CartNotFoundException("Cart with ID " + id + " not found")));
     }
 
     public List<CartDto> convertCartsToDto(List<Cart> abandonedCarts) {
@@ -80,17 +125,18 @@ public class CartManager {
                 .toList();
     }
 
-    public void logAbandonedCartsInfo(List<Cart> abandonedCarts, LocalDate thresholdDate) {
+    public void logAbandonedCartsInfo(List<AbandonedCart> abandonedCarts, LocalDate thresholdDate) {
         if (abandonedCarts.isEmpty()) {
             log.info(CartErrorMessages.NO_ABANDONED_CARTS_FOUND + "{}", thresholdDate);
         } else {
             log.info(CartErrorMessages.FOUND_ABANDONED_CARTS + "{}", abandonedCarts.size(), thresholdDate);
-            abandonedCarts.forEach(cart -> log.debug(CartErrorMessages.ABANDONED_CART + "{}", cart.getId(), cart.getUpdatedAt()));
+            abandonedCarts.forEach(cart -> log.debug(CartErrorMessages.ABANDONED_CART + "{}", cart.id(), cart.updatedAt()));
         }
     }
 
+    @Timed(value = CartMetrics.PIPELINE, extraTags = {CartMetrics.STAGE, "abandoned-scan"})
     public List<Cart> fetchAbandonedCarts(LocalDate thresholdDate) {
-        return cartRepository.identifyAbandonedCarts(thresholdDate);
+        return cartRepository.findAbandonedCartsWithProducts(thresholdDate);
     }
 
     public void ensureUserDoesNotAlreadyHaveCart(Long userId) {
@@ -108,20 +154,59 @@ public class CartManager {
         return cartRepository.save(cart);
     }
 
+    @Timed(value = CartMetrics.PIPELINE, extraTags = {CartMetrics.STAGE, "load-cart"})
+    public CartContext loadCartContext(Long cartId) {
+        Cart cart = fetchCartById(cartId);
+        DistributionSummary.builder(CartMetrics.CART_SIZE)
+                .description("Lines per cart loaded for validation")
+                .baseUnit("lines")
+                .register(meterRegistry)
+                .record(cart.getCartProducts().size());
+        return new CartContext(cart, getProductMap(cart));
+    }
+
+    @Timed(value = CartMetrics.PIPELINE, extraTags = {CartMetrics.STAGE, "refresh-products"})
     public void updateAndSaveCartProductInfo(Cart cart) {
-        Map<Long, Product> productMap = getProductMap(cart);
-        updateCartProductsInfo(cart, productMap);
-        updateCartTimestamp(cart);
+        updateAndSaveCartProductInfo(new CartContext(cart, getProductMap(cart)));
+    }
+
+    @Timed(value = CartMetrics.PIPELINE, extraTags = {CartMetrics.STAGE, "refresh-products"})
+    public void updateAndSaveCartProductInfo(CartContext context) {
+        updateCartProductsInfo(context.getCart(), context.getProductMap());
+        updateCartTimestamp(context.getCart());
     }
 
     public void updateCartProductsInfo(Cart cart, Map<Long, Product> productMap) {
-        cart.getCartProducts().forEach(cartProduct -> {
-            Product product = productMap.get(cartProduct.getProductId());
-            if (product != null) {
-                setCartProductInfo(cartProduct, product);
-            }
-        });
-        cartProductRepository.saveAll(cart.getCartProducts());
+        List<CartProduct> changedCartProducts = cart.getCartProducts().stream()
+                .filter(cartProduct -> refreshCartProductInfo(cartProduct, productMap.get(cartProduct.getProductId())))
+                .toList();
+        int skipped = cart.getCartProducts().size() - changedCartProducts.size();
+        meterRegistry.counter(REFRESH_METRIC, "result", "written").increment(changedCartProducts.size());
+        meterRegistry.counter(REFRESH_METRIC, "result", "skipped").increment(skipped);
+        log.debug("Cart {}: {} lines refreshed from the catalog, {} unchanged", cart.getId(), changedCartProducts.size(), skipped);
+        cartProductBatchRepository.updateCatalogInfo(changedCartProducts);
+        cartSnapshotCache.invalidateCatalogInfo(changedCartProducts);
+    }
+
+    public boolean refreshCartProductInfo(CartProduct cartProduct, Product product) {
+        if (product == null || matchesCatalog(cartProduct, product)) {
+            return false;
+        }
+        setCartProductInfo(cartProduct, product);
+        return true;
+    }
+
+    public boolean matchesCatalog(CartProduct cartProduct, Product product) {
+        return samePrice(cartProduct.getPrice(), product.getPrice())
+                && Objects.equals(cartProduct.getProductName(), product.getName())
+                && Objects.equals(cartProduct.getProductDescription(), product.getDescription());
+    }
+
+    private boolean samePrice(BigDecimal stored, BigDecimal catalog) {
+        if (stored == null || catalog == null) {
+            return stored == catalog;
+        }
+        return stored.compareTo(catalog.setScale(PRICE_SCALE, RoundingMode.HALF_UP)) == 0;
     }
 
     public void setCartProductInfo(CartProduct cartProduct, Product product) {
@@ -130,9 +215,9 @@ public class CartManager {
         cartProduct.setProductDescription(product.getDescription());
     }
 
-    public void clearCartProducts(Long cartId, Cart cart) {
-        cartProductRepository.removeAllByCartId(cartId);
-        cart.getCartProducts().clear();
+    public int clearCartProducts(Long cartId) {
+        cartInvalidationBus.publish(cartId);
+        return cartProductRepository.deleteAllByCartId(cartId);
     }
 
     public void updateCartTimestamp(Cart cart) {
@@ -143,6 +228,9 @@ public class CartManager {
         List<Long> productIds = cart.getCartProducts().stream()
                 .map(CartProduct::getProductId)
                 .toList();
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
         return productService.findProductsByIds(productIds).stream()
                 .collect(Collectors.toMap(Product::getId, Function.identity()));
     }
@@ -153,13 +241,16 @@ public class CartManager {
         return cartDto;
     }
 
-    public void identifyAbandonedCarts(LocalDate thresholdDate) {
-        List<Cart> abandonedCarts = fetchAbandonedCarts(thresholdDate);
-        logAbandonedCartsInfo(abandonedCarts, thresholdDate);
-        convertCartsToDto(abandonedCarts);
+    public CartDto prepareCartDto(CartContext context) {
+        CartDto cartDto = EntityMapper.convertCartToDto(context.getCart());
+        cartDto.setTotalPrice(cartCalculator.calculateCartTotal(context));
+        return cartDto;
     }
 
-    public List<Cart> fetchAllCarts() {
-        return cartRepository.findAll();
+    @Timed(value = CartMetrics.PIPELINE, extraTags = {CartMetrics.STAGE, "abandoned-scan"})
+    public int identifyAbandonedCarts(LocalDate thresholdDate) {
+        List<AbandonedCart> abandonedCarts = cartRepository.identifyAbandonedCarts(thresholdDate);
+        logAbandonedCartsInfo(abandonedCarts, thresholdDate);
+        return abandonedCarts.size();
     }
 }
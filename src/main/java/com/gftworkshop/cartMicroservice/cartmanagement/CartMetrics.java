@@ -0,0 +1,11 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+public final class CartMetrics {
+
+    public static final String PIPELINE = "cart.pipeline";
+    public static final String STAGE = "stage";
+    public static final String CART_SIZE = "cart.size";
+
+    private CartMetrics() {
+    }
+}
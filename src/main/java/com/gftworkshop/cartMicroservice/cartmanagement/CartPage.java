@@ -0,0 +1,8 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.model.Cart;
+
+import java.util.List;
+
+public record CartPage(List<Cart> carts, Long nextCursor) {
+}
@@ -0,0 +1,82 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.repositories.CartRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+public class CartPager {
+
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final CartRepository cartRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public CartPager(CartRepository cartRepository,
+                     EntityManager entityManager,
+                     ObjectMapper objectMapper,
+                     @Value("${cart.pagination.default-page-size:50}") int defaultPageSize,
+                     @Value("${cart.pagination.max-page-size:500}") int maxPageSize) {
+        this.cartRepository = cartRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public CartPage fetchPage(Long afterId, Integer size) {
+        int pageSize = resolvePageSize(size);
+        List<Long> ids = cartRepository.findIdsAfter(afterId == null ? 0L : afterId, Limit.of(pageSize + 1));
+        boolean hasMore = ids.size() > pageSize;
+        List<Long> pageIds = hasMore ? ids.subList(0, pageSize) : ids;
+        if (pageIds.isEmpty()) {
+            return new CartPage(List.of(), null);
+        }
+        List<Cart> carts = cartRepository.findAllByIdInOrderById(pageIds);
+        return new CartPage(carts, hasMore ? pageIds.get(pageIds.size() - 1) : null);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportCarts(OutputStream out) {
+        long exported = 0;
+        try (Stream<Cart> carts = cartRepository.streamAllOrderById()) {
+            Iterator<Cart> iterator = carts.iterator();
+            while (iterator.hasNext()) {
+                Cart cart = iterator.next();
+                out.write(objectMapper.writeValueAsBytes(cart));
+                out.write(NEW_LINE);
+                entityManager.detach(cart);
+                exported++;
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} carts", exported);
+        return exported;
+    }
+
+    int resolvePageSize(Integer size) {
+        if (size == null || size < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+}
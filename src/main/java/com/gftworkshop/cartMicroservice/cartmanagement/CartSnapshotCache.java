@@ -0,0 +1,163 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class CartSnapshotCache {
+
+    static final String HIT_RATIO_METRIC = "cart.snapshot.cache.hit.ratio";
+
+    private final boolean enabled;
+    private final Cache<Long, CartSnapshot> carts;
+    private final Cache<Long, CatalogInfo> catalogInfo;
+
+    public CartSnapshotCache(MeterRegistry meterRegistry,
+                             @Value("${cart.snapshot.cache.enabled:true}") boolean enabled,
+                             @Value("${cart.snapshot.cache.ttl:PT30S}") Duration ttl,
+                             @Value("${cart.snapshot.cache.max-size:10000}") long maxSize,
+                             @Value("${cart.snapshot.cache.catalog-max-size:100000}") long catalogMaxSize) {
+        this.enabled = enabled;
+        this.carts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.catalogInfo = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(catalogMaxSize)
+                .recordStats()
+                .build();
+        monitor(meterRegistry, carts, "cartSnapshots");
+        monitor(meterRegistry, catalogInfo, "cartCatalogInfo");
+    }
+
+    public Cart getCart(Long cartId, Function<Long, Cart> loader) {
+        if (!enabled) {
+            return loader.apply(cartId);
+        }
+        Cart cart = assemble(carts.get(cartId, id -> capture(loader.apply(id))));
+        if (cart == null) {
+            log.debug("Catalog info for cart {} was evicted, reloading it", cartId);
+            carts.invalidate(cartId);
+            cart = assemble(carts.get(cartId, id -> capture(loader.apply(id))));
+        }
+        return cart != null ? cart : loader.apply(cartId);
+    }
+
+    public void invalidateCatalogInfo(Collection<CartProduct> cartProducts) {
+        catalogInfo.invalidateAll(cartProducts.stream()
+                .map(CartProduct::getId)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    public void invalidate(Long cartId) {
+        evict(cartId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(cartId);
+                }
+            });
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CacheStats stats() {
+        return carts.stats();
+    }
+
+    private void evict(Long cartId) {
+        CartSnapshot snapshot = carts.getIfPresent(cartId);
+        carts.invalidate(cartId);
+        if (snapshot != null) {
+            catalogInfo.invalidateAll(snapshot.lines().stream()
+                    .map(LineSnapshot::id)
+                    .toList());
+        }
+    }
+
+    private CartSnapshot capture(Cart cart) {
+        List<LineSnapshot> lines = new ArrayList<>();
+        cart.getCartProducts().forEach(cartProduct -> {
+            lines.add(new LineSnapshot(cartProduct.getId(), cartProduct.getProductId(), cartProduct.getQuantity()));
+            catalogInfo.put(cartProduct.getId(), new CatalogInfo(cartProduct.getProductName(),
+                    cartProduct.getProductDescription(), cartProduct.getPrice(), cartProduct.getVersion()));
+        });
+        return new CartSnapshot(cart.getId(), cart.getVersion(), cart.getUserId(), cart.getUpdatedAt(), List.copyOf(lines));
+    }
+
+    private Cart assemble(CartSnapshot snapshot) {
+        Map<Long, CatalogInfo> catalog = catalogInfo.getAllPresent(snapshot.lines().stream()
+                .map(LineSnapshot::id)
+                .toList());
+        if (catalog.size() < snapshot.lines().size()) {
+            return null;
+        }
+        Cart cart = Cart.builder()
+                .id(snapshot.id())
+                .version(snapshot.version())
+                .userId(snapshot.userId())
+                .updatedAt(snapshot.updatedAt())
+                .cartProducts(new ArrayList<>())
+                .build();
+        snapshot.lines().forEach(line -> {
+            CatalogInfo info = catalog.get(line.id());
+            cart.getCartProducts().add(CartProduct.builder()
+                    .id(line.id())
+                    .version(info.version())
+                    .cart(cart)
+                    .productId(line.productId())
+                    .productName(info.name())
+                    .productDescription(info.description())
+                    .quantity(line.quantity())
+                    .price(info.price())
+                    .build());
+        });
+        return cart;
+    }
+
+    private static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder(HIT_RATIO_METRIC, cache, c -> c.stats().hitRate())
+                .description("Share of lookups served from the cart snapshot cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    record CartSnapshot(Long id, Long version, Long userId, LocalDate updatedAt, List<LineSnapshot> lines) {
+    }
+
+    record LineSnapshot(Long id, Long productId, Integer quantity) {
+    }
+
+    record CatalogInfo(String name, String description, BigDecimal price, Long version) {
+    }
+}
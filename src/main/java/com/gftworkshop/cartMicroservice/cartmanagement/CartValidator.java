@@ -2,13 +2,15 @@ package com.gftworkshop.cartMicroservice.cartmanagement;
 
 import com.gftworkshop.cartMicroservice.api.dto.Product;
 import com.gftworkshop.cartMicroservice.exceptions.CartProductInvalidQuantityException;
+import com.gftworkshop.cartMicroservice.exceptions.CartProductNotFoundException;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
-import com.gftworkshop.cartMicroservice.repositories.CartProductRepository;
 import com.gftworkshop.cartMicroservice.services.ProductService;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -19,37 +21,59 @@ import java.util.stream.Collectors;
 public class CartValidator {
 
     private final ProductService productService;
-    private final CartProductRepository cartProductRepository;
+    private final StockSnapshotCache stockSnapshotCache;
 
-    public void validateProductStock(CartProduct cartProduct) {
-        int totalDesiredQuantity = calculateTotalDesiredQuantity(cartProduct);
+    public int validateProductStock(CartProduct cartProduct) {
         int availableStock = getAvailableStock(cartProduct);
+        validateQuantity(cartProduct.getQuantity(), availableStock);
+        return availableStock;
+    }
 
+    public void validateQuantity(int totalDesiredQuantity, int availableStock) {
         if (totalDesiredQuantity > availableStock) {
             throw new CartProductInvalidQuantityException(
                     CartErrorMessages.NOT_ENOUGH_STOCK + totalDesiredQuantity + CartErrorMessages.ACTUAL_STOCK + availableStock);
         }
     }
 
-    public int calculateTotalDesiredQuantity(CartProduct cartProduct) {
-        return getCurrentQuantity(cartProduct) + cartProduct.getQuantity();
+    public int getAvailableStock(CartProduct cartProduct) {
+        return stockSnapshotCache.getAvailableStock(cartProduct.getProductId());
     }
 
-    public int getCurrentQuantity(CartProduct cartProduct) {
-        return cartProductRepository.findByCartIdAndProductId(cartProduct.getCart().getId(), cartProduct.getProductId())
-                .map(CartProduct::getQuantity)
-                .orElse(0);
-    }
+    public void validateProductsStock(Collection<CartProduct> cartProducts, Map<Long, CartProduct> existingCartProducts) {
+        List<Long> productIds = cartProducts.stream()
+                .map(CartProduct::getProductId)
+                .toList();
+        List<Product> products = productService.findProductsByIds(productIds);
+        stockSnapshotCache.remember(products);
+        Map<Long, Product> productMap = products.stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-    public int getAvailableStock(CartProduct cartProduct) {
-        return productService.getProductById(cartProduct.getProductId()).getCurrentStock();
+        cartProducts.forEach(cartProduct -> {
+            Product product = productMap.get(cartProduct.getProductId());
+            if (product == null) {
+                throw new CartProductNotFoundException(CartErrorMessages.PRODUCT_NOT_FOUND + cartProduct.getProductId());
+            }
+            CartProduct existing = existingCartProducts.get(cartProduct.getProductId());
+            int totalDesiredQuantity = cartProduct.getQuantity() + (existing == null ? 0 : existing.getQuantity());
+            if (totalDesiredQuantity > product.getCurrentStock()) {
+                throw new CartProductInvalidQuantityException(
+                        CartErrorMessages.NOT_ENOUGH_STOCK + totalDesiredQuantity + CartErrorMessages.ACTUAL_STOCK + product.getCurrentStock());
+            }
+        });
     }
 
+    @Timed(value = CartMetrics.PIPELINE, extraTags = {CartMetrics.STAGE, "validate-stock"})
     public void validateCartProductsStock(Cart cart) {
         Map<Long, Product> productMap = getProductMap(cart);
         checkStockForCartProducts(cart, productMap);
     }
 
+    @Timed(value = CartMetrics.PIPELINE, extraTags = {CartMetrics.STAGE, "validate-stock"})
+    public void validateCartProductsStock(CartContext context) {
+        checkStockForCartProducts(context.getCart(), context.getProductMap());
+    }
+
     public void checkStockForCartProducts(Cart cart, Map<Long, Product> productMap) {
         cart.getCartProducts().forEach(cartProduct -> {
             Product product = productMap.get(cartProduct.getProductId());
@@ -65,7 +89,12 @@ public class CartValidator {
         List<Long> productIds = cart.getCartProducts().stream()
                 .map(CartProduct::getProductId)
                 .toList();
-        return productService.findProductsByIds(productIds).stream()
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Product> products = productService.findProductsByIds(productIds);
+        stockSnapshotCache.remember(products);
+        return products.stream()
                 .collect(Collectors.toMap(Product::getId, Function.identity()));
     }
 }
@@ -0,0 +1,32 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@Slf4j
+public class LocalCartInvalidationBus implements CartInvalidationBus {
+
+    static final String INVALIDATIONS_METRIC = "cart.invalidations";
+
+    private final List<Consumer<Long>> listeners;
+    private final MeterRegistry meterRegistry;
+
+    public LocalCartInvalidationBus(List<Consumer<Long>> listeners, MeterRegistry meterRegistry) {
+        this.listeners = List.copyOf(listeners);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void publish(Long cartId) {
+        deliver(cartId, "local");
+    }
+
+    void deliver(Long cartId, String source) {
+        log.debug("Invalidating cached copies of cart {} ({})", cartId, source);
+        meterRegistry.counter(INVALIDATIONS_METRIC, "source", source).increment();
+        listeners.forEach(listener -> listener.accept(cartId));
+    }
+}
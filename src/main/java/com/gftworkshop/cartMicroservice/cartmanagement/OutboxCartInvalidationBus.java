@@ -0,0 +1,78 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.repositories.CartInvalidationOutboxRepository;
+import com.gftworkshop.cartMicroservice.repositories.CartInvalidationOutboxRepository.CartInvalidation;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Slf4j
+public class OutboxCartInvalidationBus implements CartInvalidationBus {
+
+    private final LocalCartInvalidationBus localBus;
+    private final CartInvalidationOutboxRepository outboxRepository;
+    private final String nodeId;
+    private final Duration lookback;
+    private final Duration retention;
+    private final Cache<Long, Boolean> deliveredIds;
+    private LocalDateTime watermark;
+
+    public OutboxCartInvalidationBus(LocalCartInvalidationBus localBus,
+                                     CartInvalidationOutboxRepository outboxRepository,
+                                     String nodeId,
+                                     Duration lookback,
+                                     Duration retention) {
+        this.localBus = localBus;
+        this.outboxRepository = outboxRepository;
+        this.nodeId = nodeId;
+        this.lookback = lookback;
+        this.retention = retention;
+        this.deliveredIds = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    public void publish(Long cartId) {
+        localBus.publish(cartId);
+        outboxRepository.insert(cartId, nodeId);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.invalidation.poll-interval:PT1S}")
+    public synchronized int poll() {
+        if (watermark == null) {
+            watermark = outboxRepository.currentTimestamp();
+        }
+        int delivered = 0;
+        for (CartInvalidation invalidation : outboxRepository.findCreatedSince(watermark.minus(lookback))) {
+            if (invalidation.createdAt().isAfter(watermark)) {
+                watermark = invalidation.createdAt();
+            }
+            if (!nodeId.equals(invalidation.nodeId())
+                    && deliveredIds.asMap().putIfAbsent(invalidation.id(), Boolean.TRUE) == null) {
+                localBus.deliver(invalidation.cartId(), "remote");
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    @Scheduled(fixedDelayString = "${cart.invalidation.purge-interval:PT1M}")
+    public synchronized int purge() {
+        if (watermark == null) {
+            return 0;
+        }
+        int purged = outboxRepository.deleteCreatedBefore(watermark.minus(retention));
+        log.debug("Purged {} cart invalidations older than {}", purged, retention);
+        return purged;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,58 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.config.ShippingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+@Slf4j
+public class ShippingTierFileWatcher {
+
+    private final ShippingTierRegistry shippingTierRegistry;
+    private final Path file;
+    private FileTime lastModified;
+
+    public ShippingTierFileWatcher(ShippingTierRegistry shippingTierRegistry, Path file) {
+        this.shippingTierRegistry = shippingTierRegistry;
+        this.file = file;
+        check();
+    }
+
+    @Scheduled(fixedDelayString = "${cart.shipping.reload-interval:PT10S}")
+    public synchronized boolean check() {
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            log.warn("Shipping tiers file {} cannot be read: {}", file, e.getMessage());
+            return false;
+        }
+        if (modified.equals(lastModified)) {
+            return false;
+        }
+        lastModified = modified;
+        try {
+            shippingTierRegistry.reload(load());
+            log.info("Reloaded shipping tiers from {}", file);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Keeping the current shipping tiers, {} could not be applied: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private ShippingProperties load() throws IOException {
+        return new Binder(ConfigurationPropertySources.from(
+                new YamlPropertySourceLoader().load(file.toString(), new FileSystemResource(file))))
+                .bind("cart.shipping", ShippingProperties.class)
+                .orElseGet(ShippingProperties::new);
+    }
+}
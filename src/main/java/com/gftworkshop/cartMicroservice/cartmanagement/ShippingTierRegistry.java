@@ -0,0 +1,42 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.config.ShippingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@Slf4j
+public class ShippingTierRegistry {
+
+    private final AtomicReference<Tables> tables = new AtomicReference<>();
+
+    public ShippingTierRegistry(ShippingProperties properties) {
+        reload(properties);
+    }
+
+    public BigDecimal costFor(double weight) {
+        return tables.get().defaultTable().costFor(weight);
+    }
+
+    public BigDecimal costFor(Long countryId, double weight) {
+        Tables current = tables.get();
+        ShippingTierTable table = countryId == null ? null : current.byCountry().get(countryId);
+        return (table != null ? table : current.defaultTable()).costFor(weight);
+    }
+
+    public void reload(ShippingProperties properties) {
+        ShippingTierTable defaultTable = ShippingTierTable.of(properties.getTiers());
+        Map<Long, ShippingTierTable> byCountry = new HashMap<>();
+        properties.getCountries().forEach((countryId, tiers) -> byCountry.put(countryId, ShippingTierTable.of(tiers)));
+        tables.set(new Tables(defaultTable, Map.copyOf(byCountry)));
+        log.info("Loaded {} default shipping tiers and tier tables for {} countries", defaultTable.size(), byCountry.size());
+    }
+
+    private record Tables(ShippingTierTable defaultTable, Map<Long, ShippingTierTable> byCountry) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.config.ShippingProperties;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+public final class ShippingTierTable {
+
+    private final double[] upperBounds;
+    private final BigDecimal[] costs;
+
+    private ShippingTierTable(double[] upperBounds, BigDecimal[] costs) {
+        this.upperBounds = upperBounds;
+        this.costs = costs;
+    }
+
+    public static ShippingTierTable of(List<ShippingProperties.Tier> tiers) {
+        if (tiers == null || tiers.isEmpty()) {
+            throw new IllegalArgumentException("Shipping tiers cannot be empty");
+        }
+        double[] upperBounds = new double[tiers.size()];
+        BigDecimal[] costs = new BigDecimal[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            ShippingProperties.Tier tier = tiers.get(i);
+            double upperBound = tier.getUpTo() == null ? Double.POSITIVE_INFINITY : tier.getUpTo();
+            if (Double.isNaN(upperBound) || (i > 0 && upperBound <= upperBounds[i - 1])) {
+                throw new IllegalArgumentException("Shipping tiers must have strictly increasing weights: " + tiers);
+            }
+            if (tier.getCost() == null || tier.getCost().signum() < 0) {
+                throw new IllegalArgumentException("Shipping tier cost must be zero or positive: " + tier);
+            }
+            upperBounds[i] = upperBound;
+            costs[i] = tier.getCost();
+        }
+        return new ShippingTierTable(upperBounds, costs);
+    }
+
+    public BigDecimal costFor(double weight) {
+        int index = Arrays.binarySearch(upperBounds, weight);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index >= upperBounds.length) {
+            throw new IllegalArgumentException("Invalid weight: " + weight);
+        }
+        return costs[index];
+    }
+
+    public int size() {
+        return upperBounds.length;
+    }
+}
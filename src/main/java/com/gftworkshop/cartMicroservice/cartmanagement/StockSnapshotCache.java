@@ -0,0 +1,73 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.config.StockCacheProperties;
+import com.gftworkshop.cartMicroservice.exceptions.CartProductNotFoundException;
+import com.gftworkshop.cartMicroservice.services.ProductService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+@Component
+public class StockSnapshotCache {
+
+    private final ProductService productService;
+    private final StockCacheProperties properties;
+    private final Cache<Long, Integer> stocks;
+
+    public StockSnapshotCache(ProductService productService, StockCacheProperties properties, MeterRegistry meterRegistry) {
+        this.productService = productService;
+        this.properties = properties;
+        this.stocks = Caffeine.newBuilder()
+                .expireAfter(new Expiry<Long, Integer>() {
+                    @Override
+                    public long expireAfterCreate(Long productId, Integer stock, long currentTime) {
+                        return properties.stalenessFor(productId).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long productId, Integer stock, long currentTime, long currentDuration) {
+                        return properties.stalenessFor(productId).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long productId, Integer stock, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(properties.getMaxSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, stocks, "productStock");
+    }
+
+    public int getAvailableStock(Long productId) {
+        if (!properties.isEnabled()) {
+            return fetchStock(productId);
+        }
+        return stocks.get(productId, this::fetchStock);
+    }
+
+    public void remember(Collection<Product> products) {
+        if (properties.isEnabled()) {
+            products.stream()
+                    .filter(product -> product.getId() != null && product.getCurrentStock() != null)
+                    .forEach(product -> stocks.put(product.getId(), product.getCurrentStock()));
+        }
+    }
+
+    private Integer fetchStock(Long productId) {
+        return productService.findProductsByIds(List.of(productId)).stream()
+                .filter(product -> productId.equals(product.getId()))
+                .findFirst()
+                .map(product -> Objects.requireNonNullElse(product.getCurrentStock(), 0))
+                .orElseThrow(() -> new CartProductNotFoundException(CartErrorMessages.PRODUCT_NOT_FOUND + productId));
+    }
+}
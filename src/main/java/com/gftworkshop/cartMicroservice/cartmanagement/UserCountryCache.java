@@ -0,0 +1,75 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.api.dto.Country;
+import com.gftworkshop.cartMicroservice.services.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+@Slf4j
+public class UserCountryCache {
+
+    private final UserService userService;
+    private final Cache<Long, Long> userCountries;
+    private final Cache<Long, Double> countryTaxRates;
+
+    public UserCountryCache(UserService userService,
+                            MeterRegistry meterRegistry,
+                            @Value("${cart.tax.cache.user-ttl:PT10M}") Duration userTtl,
+                            @Value("${cart.tax.cache.user-max-size:100000}") long userMaxSize,
+                            @Value("${cart.tax.cache.country-ttl:PT1H}") Duration countryTtl,
+                            @Value("${cart.tax.cache.country-max-size:500}") long countryMaxSize) {
+        this.userService = userService;
+        this.userCountries = Caffeine.newBuilder()
+                .expireAfterWrite(userTtl)
+                .maximumSize(userMaxSize)
+                .recordStats()
+                .build();
+        this.countryTaxRates = Caffeine.newBuilder()
+                .expireAfterWrite(countryTtl)
+                .maximumSize(countryMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userCountries, "userCountries");
+        CaffeineCacheMetrics.monitor(meterRegistry, countryTaxRates, "countryTaxRates");
+    }
+
+    public Optional<Country> getCachedCountry(Long userId) {
+        Long countryId = userCountries.getIfPresent(userId);
+        if (countryId == null) {
+            return Optional.empty();
+        }
+        Double tax = countryTaxRates.getIfPresent(countryId);
+        if (tax == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Country(countryId, tax));
+    }
+
+    public Country getCountry(Long userId) {
+        return getCachedCountry(userId).orElseGet(() -> fetchCountry(userId));
+    }
+
+    public void remember(Long userId, Country country) {
+        if (country != null && country.getId() != null && country.getTax() != null) {
+            userCountries.put(userId, country.getId());
+            countryTaxRates.put(country.getId(), country.getTax());
+        } else {
+            log.debug("User {} has no cacheable country", userId);
+        }
+    }
+
+    private Country fetchCountry(Long userId) {
+        Country country = userService.getUserById(userId).getCountry();
+        remember(userId, country);
+        return country;
+    }
+}
@@ -0,0 +1,95 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.services.ProductService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Component
+@Slf4j
+public class VolumePriceCache {
+
+    private final ProductService productService;
+    private final Cache<PriceKey, Product> cache;
+
+    public VolumePriceCache(ProductService productService,
+                            MeterRegistry meterRegistry,
+                            @Value("${cart.pricing.cache.ttl:PT5S}") Duration ttl,
+                            @Value("${cart.pricing.cache.max-size:10000}") long maxSize) {
+        this.productService = productService;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "volumePrices");
+    }
+
+    public List<Product> getDiscountedProducts(List<CartProductDto> cartProducts) {
+        Map<PriceKey, Product> prices = new HashMap<>(cache.getAllPresent(cartProducts.stream()
+                .map(PriceKey::of)
+                .toList()));
+
+        Map<PriceKey, CartProductDto> misses = new LinkedHashMap<>();
+        cartProducts.forEach(cartProduct -> {
+            PriceKey key = PriceKey.of(cartProduct);
+            if (!prices.containsKey(key)) {
+                misses.putIfAbsent(key, cartProduct);
+            }
+        });
+
+        if (!misses.isEmpty()) {
+            log.debug("Pricing {} of {} cart lines against the catalog", misses.size(), cartProducts.size());
+            prices.putAll(fetchMisses(misses));
+        }
+
+        return cartProducts.stream()
+                .map(cartProduct -> prices.get(PriceKey.of(cartProduct)))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private Map<PriceKey, Product> fetchMisses(Map<PriceKey, CartProductDto> misses) {
+        Map<Long, Product> fetchedById = new HashMap<>();
+        productService.getProductByIdWithDiscountedPrice(List.copyOf(misses.values()))
+                .forEach(product -> fetchedById.put(product.getId(), product));
+
+        Map<PriceKey, Product> fetched = new HashMap<>();
+        misses.keySet().forEach(key -> {
+            Product product = fetchedById.get(key.productId());
+            if (product != null) {
+                cache.put(key, product);
+                fetched.put(key, product);
+            }
+        });
+        return fetched;
+    }
+
+    record PriceKey(Long productId, Integer quantity) {
+        static PriceKey of(CartProductDto cartProduct) {
+            return new PriceKey(cartProduct.getProductId(), cartProduct.getQuantity());
+        }
+    }
+}
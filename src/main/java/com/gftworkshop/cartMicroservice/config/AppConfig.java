@@ -1,14 +1,107 @@
 package com.gftworkshop.cartMicroservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class AppConfig {
 
     @Bean
-    public RestClient restClient() {
-        return RestClient.create();
+    public ClientHttpRequestFactory catalogRequestFactory(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        return requestFactory("catalog", properties.getCatalog(), meterRegistry);
+    }
+
+    @Bean
+    public ClientHttpRequestFactory userRequestFactory(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        return requestFactory("users", properties.getUsers(), meterRegistry);
+    }
+
+    @Bean
+    public RestClient catalogRestClient(@Qualifier("catalogRequestFactory") ClientHttpRequestFactory requestFactory) {
+        return RestClient.builder()
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @Bean
+    public RestClient userRestClient(@Qualifier("userRequestFactory") ClientHttpRequestFactory requestFactory) {
+        return RestClient.builder()
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @Bean
+    public WebClient catalogWebClient(HttpClientProperties properties) {
+        return webClient("catalog", properties.getCatalog());
+    }
+
+    @Bean
+    public WebClient userWebClient(HttpClientProperties properties) {
+        return webClient("users", properties.getUsers());
+    }
+
+    public static WebClient webClient(String name, HttpClientProperties.Client client) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(client.getMaxConnectionsTotal())
+                .pendingAcquireTimeout(client.getPoolAcquireTimeout())
+                .maxIdleTime(client.getIdleEviction())
+                .evictInBackground(client.getIdleEviction())
+                .metrics(true)
+                .build();
+        reactor.netty.http.client.HttpClient httpClient = reactor.netty.http.client.HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) client.getConnectTimeout().toMillis())
+                .responseTimeout(client.getReadTimeout());
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    public static ClientHttpRequestFactory requestFactory(String name, HttpClientProperties.Client client, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(client.getMaxConnectionsPerRoute())
+                .setMaxConnTotal(client.getMaxConnectionsTotal())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(client.getConnectTimeout()))
+                        .setSocketTimeout(timeout(client.getReadTimeout()))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(client.getPoolAcquireTimeout()))
+                        .setResponseTimeout(timeout(client.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(client.getIdleEviction().toMillis()))
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
     }
 }
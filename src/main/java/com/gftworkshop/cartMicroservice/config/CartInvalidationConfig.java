@@ -0,0 +1,47 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import com.gftworkshop.cartMicroservice.cartmanagement.CartFreshnessCache;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartSnapshotCache;
+import com.gftworkshop.cartMicroservice.cartmanagement.LocalCartInvalidationBus;
+import com.gftworkshop.cartMicroservice.cartmanagement.OutboxCartInvalidationBus;
+import com.gftworkshop.cartMicroservice.repositories.CartInvalidationOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Configuration
+public class CartInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cart.invalidation.bus", havingValue = "local", matchIfMissing = true)
+    public LocalCartInvalidationBus localCartInvalidationBus(CartSnapshotCache cartSnapshotCache,
+                                                             CartFreshnessCache cartFreshnessCache,
+                                                             MeterRegistry meterRegistry) {
+        return new LocalCartInvalidationBus(listeners(cartSnapshotCache, cartFreshnessCache), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cart.invalidation.bus", havingValue = "outbox")
+    public OutboxCartInvalidationBus outboxCartInvalidationBus(CartSnapshotCache cartSnapshotCache,
+                                                               CartFreshnessCache cartFreshnessCache,
+                                                               CartInvalidationOutboxRepository outboxRepository,
+                                                               MeterRegistry meterRegistry,
+                                                               @Value("${cart.invalidation.node-id:}") String nodeId,
+                                                               @Value("${cart.invalidation.lookback:PT10S}") Duration lookback,
+                                                               @Value("${cart.invalidation.retention:PT10M}") Duration retention) {
+        LocalCartInvalidationBus localBus = new LocalCartInvalidationBus(listeners(cartSnapshotCache, cartFreshnessCache), meterRegistry);
+        return new OutboxCartInvalidationBus(localBus, outboxRepository,
+                nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId, lookback, retention);
+    }
+
+    private static List<Consumer<Long>> listeners(CartSnapshotCache cartSnapshotCache, CartFreshnessCache cartFreshnessCache) {
+        return List.of(cartSnapshotCache::invalidate, cartFreshnessCache::invalidate);
+    }
+}
@@ -0,0 +1,24 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "http.clients")
+public class HttpClientProperties {
+
+    private Client catalog = new Client();
+    private Client users = new Client();
+
+    @Data
+    public static class Client {
+        private int maxConnectionsPerRoute = 50;
+        private int maxConnectionsTotal = 100;
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration readTimeout = Duration.ofSeconds(3);
+        private Duration poolAcquireTimeout = Duration.ofMillis(500);
+        private Duration idleEviction = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,89 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import com.gftworkshop.cartMicroservice.services.DownstreamGuard;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public DownstreamGuard catalogGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                        BulkheadRegistry bulkheadRegistry,
+                                        ResilienceProperties properties,
+                                        MeterRegistry meterRegistry) {
+        return guard("CATALOG", "catalog", properties.getCatalog(), circuitBreakerRegistry, bulkheadRegistry, meterRegistry);
+    }
+
+    @Bean
+    public DownstreamGuard userGuard(CircuitBreakerRegistry circuitBreakerRegistry,
+                                     BulkheadRegistry bulkheadRegistry,
+                                     ResilienceProperties properties,
+                                     MeterRegistry meterRegistry) {
+        return guard("USER", "users", properties.getUsers(), circuitBreakerRegistry, bulkheadRegistry, meterRegistry);
+    }
+
+    public static DownstreamGuard guard(String service, String name, ResilienceProperties.Downstream downstream,
+                                        CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry,
+                                        MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name, circuitBreakerConfig(downstream));
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker {} changed state: {}", name, event.getStateTransition()));
+        return new DownstreamGuard(service, circuitBreaker, bulkheadRegistry.bulkhead(name, bulkheadConfig(downstream)), meterRegistry);
+    }
+
+    private static CircuitBreakerConfig circuitBreakerConfig(ResilienceProperties.Downstream downstream) {
+        return CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(downstream.getSlidingWindowSize())
+                .minimumNumberOfCalls(downstream.getMinimumNumberOfCalls())
+                .failureRateThreshold(downstream.getFailureRateThreshold())
+                .slowCallRateThreshold(downstream.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(downstream.getSlowCallDuration())
+                .waitDurationInOpenState(downstream.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(downstream.getPermittedCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(ResilienceConfig::isDownstreamFailure)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build();
+    }
+
+    private static BulkheadConfig bulkheadConfig(ResilienceProperties.Downstream downstream) {
+        return BulkheadConfig.custom()
+                .maxConcurrentCalls(downstream.getMaxConcurrentCalls())
+                .maxWaitDuration(downstream.getMaxWaitDuration())
+                .build();
+    }
+
+    private static boolean isDownstreamFailure(Throwable throwable) {
+        return !(throwable instanceof ExternalMicroserviceException exception) || exception.isServerSide();
+    }
+}
@@ -0,0 +1,27 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceProperties {
+
+    private Downstream catalog = new Downstream();
+    private Downstream users = new Downstream();
+
+    @Data
+    public static class Downstream {
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 100;
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+        private int slidingWindowSize = 50;
+        private int minimumNumberOfCalls = 20;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+        private int permittedCallsInHalfOpenState = 5;
+        private int maxConcurrentCalls = 50;
+        private Duration maxWaitDuration = Duration.ZERO;
+    }
+}
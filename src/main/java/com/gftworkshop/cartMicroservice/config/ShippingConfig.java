@@ -0,0 +1,23 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import com.gftworkshop.cartMicroservice.cartmanagement.ShippingTierFileWatcher;
+import com.gftworkshop.cartMicroservice.cartmanagement.ShippingTierRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@EnableConfigurationProperties(ShippingProperties.class)
+public class ShippingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cart.shipping.reload-file")
+    public ShippingTierFileWatcher shippingTierFileWatcher(ShippingTierRegistry shippingTierRegistry,
+                                                           @Value("${cart.shipping.reload-file}") Path file) {
+        return new ShippingTierFileWatcher(shippingTierRegistry, file);
+    }
+}
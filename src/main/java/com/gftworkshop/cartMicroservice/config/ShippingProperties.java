@@ -0,0 +1,33 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "cart.shipping")
+public class ShippingProperties {
+
+    private List<Tier> tiers = new ArrayList<>(List.of(
+            new Tier(5.0, new BigDecimal("5")),
+            new Tier(10.0, new BigDecimal("10")),
+            new Tier(20.0, new BigDecimal("20")),
+            new Tier(null, new BigDecimal("50"))
+    ));
+    private Map<Long, List<Tier>> countries = new HashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tier {
+        private Double upTo;
+        private BigDecimal cost;
+    }
+}
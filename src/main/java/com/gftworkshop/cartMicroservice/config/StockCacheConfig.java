@@ -0,0 +1,9 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(StockCacheProperties.class)
+public class StockCacheConfig {
+}
@@ -0,0 +1,22 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "cart.stock.cache")
+public class StockCacheProperties {
+
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofSeconds(2);
+    private long maxSize = 10000;
+    private Map<Long, Duration> products = new HashMap<>();
+
+    public Duration stalenessFor(Long productId) {
+        return products.getOrDefault(productId, ttl);
+    }
+}
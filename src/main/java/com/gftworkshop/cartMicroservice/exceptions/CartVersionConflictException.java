@@ -0,0 +1,9 @@
+package com.gftworkshop.cartMicroservice.exceptions;
+
+public class CartVersionConflictException extends RuntimeException {
+
+    public CartVersionConflictException(String message) {
+        super(message);
+    }
+
+}
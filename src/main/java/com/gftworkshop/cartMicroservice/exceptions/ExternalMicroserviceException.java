@@ -3,8 +3,23 @@ package com.gftworkshop.cartMicroservice.exceptions;
 
 public class ExternalMicroserviceException extends RuntimeException {
 
+    private final int statusCode;
+
     public ExternalMicroserviceException(String message) {
+        this(message, 0);
+    }
+
+    public ExternalMicroserviceException(String message, int statusCode) {
         super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isServerSide() {
+        return statusCode == 0 || statusCode >= 500;
     }
 }
 
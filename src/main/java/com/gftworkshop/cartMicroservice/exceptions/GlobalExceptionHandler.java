@@ -1,7 +1,9 @@
 package com.gftworkshop.cartMicroservice.exceptions;
 
+import jakarta.validation.ConstraintViolationException;
 import jdk.jshell.spi.ExecutionControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.validation.BindingResult;
@@ -42,12 +44,30 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolation(ConstraintViolationException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation failed: " + ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
     @ExceptionHandler(CartNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleCartNotFoundException(CartNotFoundException e, WebRequest request) {
         ErrorResponse errorResponse = new ErrorResponse(404, e.getMessage());
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    @ExceptionHandler(CartVersionConflictException.class)
+    public ResponseEntity<ErrorResponse> handleCartVersionConflictException(CartVersionConflictException e, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(412, e.getMessage() + "; fetch the cart again and retry");
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException e, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(409, "The cart was modified concurrently; fetch the cart again and retry");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     @ExceptionHandler(CartProductNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleCartProductNotFoundException(CartProductNotFoundException e, WebRequest request) {
         ErrorResponse errorResponse = new ErrorResponse(404, e.getMessage());
@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -16,12 +17,19 @@ import java.util.List;
 @AllArgsConstructor
 @Entity
 @Builder
-@Table(name = "cart")
+@Table(name = "cart", indexes = {
+        @Index(name = "idx_cart_user_id", columnList = "user_id"),
+        @Index(name = "idx_cart_updated_at", columnList = "updated_at")})
 public class Cart {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+    @SequenceGenerator(name = "cart_seq", sequenceName = "cart_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @NotNull(message = "User ID cannot be null")
     @Column(name = "user_id")
     private Long userId;
@@ -30,6 +38,7 @@ public class Cart {
     private LocalDate updatedAt;
 
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL)
+    @BatchSize(size = 50)
     @JsonManagedReference
     private List<CartProduct> cartProducts;
 }
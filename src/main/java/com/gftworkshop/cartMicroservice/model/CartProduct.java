@@ -18,12 +18,18 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 @Entity
 @Builder
-@Table(name = "cart_products")
+@Table(name = "cart_products",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cart_products_cart_product", columnNames = {"cart_id", "product_id"}))
 public class CartProduct {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_products_seq")
+    @SequenceGenerator(name = "cart_products_seq", sequenceName = "cart_products_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "cart_id")
     @JsonBackReference
@@ -0,0 +1,12 @@
+package com.gftworkshop.cartMicroservice.repositories;
+
+import com.gftworkshop.cartMicroservice.model.Cart;
+
+import java.time.LocalDate;
+
+public record AbandonedCart(Long id, LocalDate updatedAt) {
+
+    public static AbandonedCart of(Cart cart) {
+        return new AbandonedCart(cart.getId(), cart.getUpdatedAt());
+    }
+}
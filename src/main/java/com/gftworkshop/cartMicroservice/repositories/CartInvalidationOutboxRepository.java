@@ -0,0 +1,47 @@
+package com.gftworkshop.cartMicroservice.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class CartInvalidationOutboxRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO cart_invalidation (cart_id, node_id) VALUES (?, ?)";
+    private static final String SELECT_SINCE_SQL =
+            "SELECT id, cart_id, node_id, created_at FROM cart_invalidation WHERE created_at >= ? ORDER BY id";
+    private static final String DELETE_BEFORE_SQL = "DELETE FROM cart_invalidation WHERE created_at < ?";
+    private static final String CURRENT_TIMESTAMP_SQL = "SELECT LOCALTIMESTAMP(3)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartInvalidationOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(Long cartId, String nodeId) {
+        jdbcTemplate.update(INSERT_SQL, cartId, nodeId);
+    }
+
+    public List<CartInvalidation> findCreatedSince(LocalDateTime since) {
+        return jdbcTemplate.query(SELECT_SINCE_SQL, (rs, rowNum) -> new CartInvalidation(
+                rs.getLong("id"),
+                rs.getLong("cart_id"),
+                rs.getString("node_id"),
+                rs.getTimestamp("created_at").toLocalDateTime()), Timestamp.valueOf(since));
+    }
+
+    public int deleteCreatedBefore(LocalDateTime before) {
+        return jdbcTemplate.update(DELETE_BEFORE_SQL, Timestamp.valueOf(before));
+    }
+
+    public LocalDateTime currentTimestamp() {
+        return jdbcTemplate.queryForObject(CURRENT_TIMESTAMP_SQL, Timestamp.class).toLocalDateTime();
+    }
+
+    public record CartInvalidation(Long id, Long cartId, String nodeId, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.gftworkshop.cartMicroservice.repositories;
+
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+
+@Repository
+public class CartProductBatchRepository {
+
+    // Must match the @SequenceGenerator on CartProduct: each sequence value reserves the block of ids ending at it.
+    static final String LINE_ID_SEQUENCE = "cart_products_seq";
+    static final int LINE_ID_BLOCK = 50;
+
+    private static final String UPDATE_CATALOG_INFO_SQL =
+            "UPDATE cart_products SET price = ?, product_name = ?, product_description = ?, version = version + 1 WHERE id = ?";
+    private static final String UPDATE_QUANTITY_SQL = "UPDATE cart_products SET quantity = ?, version = version + 1 WHERE id = ?";
+    private static final String INCREMENT_QUANTITY_SQL =
+            "UPDATE cart_products SET quantity = quantity + ?, version = version + 1 WHERE cart_id = ? AND product_id = ?";
+    private static final String SELECT_QUANTITY_SQL = "SELECT quantity FROM cart_products WHERE cart_id = ? AND product_id = ?";
+    private static final String H2_UPSERT_SQL = "MERGE INTO cart_products t "
+            + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), "
+            + "CAST(? AS VARCHAR(255)), CAST(? AS INT), CAST(? AS DECIMAL(10, 2)))) "
+            + "AS s (id, cart_id, product_id, product_name, product_description, quantity, price) "
+            + "ON t.cart_id = s.cart_id AND t.product_id = s.product_id "
+            + "WHEN MATCHED THEN UPDATE SET quantity = t.quantity + s.quantity, version = t.version + 1 "
+            + "WHEN NOT MATCHED THEN INSERT (id, cart_id, product_id, product_name, product_description, quantity, price) "
+            + "VALUES (s.id, s.cart_id, s.product_id, s.product_name, s.product_description, s.quantity, s.price)";
+    private static final String MYSQL_UPSERT_SQL = "INSERT INTO cart_products "
+            + "(id, cart_id, product_id, product_name, product_description, quantity, price) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), version = version + 1";
+    private static final String MYSQL_NEXT_ID_BLOCK_SQL =
+            "UPDATE " + LINE_ID_SEQUENCE + " SET next_val = LAST_INSERT_ID(next_val + " + LINE_ID_BLOCK + ")";
+    private static final String MYSQL_LAST_ID_BLOCK_SQL = "SELECT LAST_INSERT_ID() - " + LINE_ID_BLOCK;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate idTransaction;
+    private final Dialect dialect;
+    private final String upsertSql;
+    private final int batchSize;
+
+    public CartProductBatchRepository(JdbcTemplate jdbcTemplate,
+                                      EntityManagerFactory entityManagerFactory,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${cart.bulk.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idTransaction = new TransactionTemplate(transactionManager);
+        this.idTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.upsertSql = upsertSql(dialect);
+        this.batchSize = batchSize;
+    }
+
+    static String upsertSql(Dialect dialect) {
+        if (dialect instanceof H2Dialect) {
+            return H2_UPSERT_SQL;
+        }
+        if (dialect instanceof MySQLDialect) {
+            return MYSQL_UPSERT_SQL;
+        }
+        throw new IllegalStateException("No cart product upsert for dialect " + dialect.getClass().getSimpleName());
+    }
+
+    /*
+     * Three statements rather than one MERGE / ON DUPLICATE KEY: the plain UPDATE covers the common case of a
+     * product already in the cart without allocating a line id, the upsert only runs (with a fresh id) when that
+     * UPDATE found nothing, and MySQL cannot return the resulting quantity from the write itself.
+     */
+    public int upsertQuantity(Long cartId, CartProduct cartProduct) {
+        int updated = jdbcTemplate.update(INCREMENT_QUANTITY_SQL, cartProduct.getQuantity(), cartId, cartProduct.getProductId());
+        if (updated == 0) {
+            insertOrIncrement(cartId, cartProduct);
+        }
+        return jdbcTemplate.queryForObject(SELECT_QUANTITY_SQL, Integer.class, cartId, cartProduct.getProductId());
+    }
+
+    public void updateQuantities(Map<Long, Integer> quantitiesById) {
+        if (quantitiesById.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_QUANTITY_SQL, quantitiesById.entrySet(), batchSize, (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+    }
+
+    public void updateCatalogInfo(Collection<CartProduct> cartProducts) {
+        if (cartProducts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_CATALOG_INFO_SQL, cartProducts, batchSize, (ps, cartProduct) -> {
+            ps.setBigDecimal(1, cartProduct.getPrice());
+            ps.setString(2, cartProduct.getProductName());
+            ps.setString(3, cartProduct.getProductDescription());
+            ps.setLong(4, cartProduct.getId());
+        });
+    }
+
+    private void insertOrIncrement(Long cartId, CartProduct cartProduct) {
+        jdbcTemplate.update(upsertSql,
+                nextId(),
+                cartId,
+                cartProduct.getProductId(),
+                cartProduct.getProductName(),
+                cartProduct.getProductDescription(),
+                cartProduct.getQuantity(),
+                cartProduct.getPrice());
+    }
+
+    private Long nextId() {
+        if (dialect.getSequenceSupport().supportsSequences()) {
+            return jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(LINE_ID_SEQUENCE), Long.class);
+        }
+        // MySQL keeps the sequence in a table; bump it in its own short transaction like Hibernate does.
+        return idTransaction.execute(status -> {
+            jdbcTemplate.update(MYSQL_NEXT_ID_BLOCK_SQL);
+            return jdbcTemplate.queryForObject(MYSQL_LAST_ID_BLOCK_SQL, Long.class);
+        });
+    }
+}
@@ -8,16 +8,24 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartProductRepository extends JpaRepository<CartProduct, Long> {
     @Modifying
     @Transactional
-    @Query("UPDATE CartProduct cp SET cp.quantity = :quantity WHERE cp.id = :id")
+    @Query("UPDATE CartProduct cp SET cp.quantity = :quantity, cp.version = cp.version + 1 WHERE cp.id = :id")
     int updateQuantity(@Param("id") Long id, @Param("quantity") int quantity);
 
-    Optional<CartProduct> findByCartIdAndProductId(Long cartId, Long productId);
+    @Query("SELECT cp FROM CartProduct cp WHERE cp.cart.id = :cartId AND cp.productId = :productId")
+    Optional<CartProduct> findByCartIdAndProductId(@Param("cartId") Long cartId, @Param("productId") Long productId);
 
-    void removeAllByCartId(Long cartId);
+    @Query("SELECT cp FROM CartProduct cp WHERE cp.cart.id = :cartId AND cp.productId IN :productIds")
+    List<CartProduct> findByCartIdAndProductIdIn(@Param("cartId") Long cartId, @Param("productIds") Collection<Long> productIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartProduct cp WHERE cp.cart.id = :cartId")
+    int deleteAllByCartId(@Param("cartId") Long cartId);
 }
@@ -1,21 +1,83 @@
 package com.gftworkshop.cartMicroservice.repositories;
 
+import com.gftworkshop.cartMicroservice.exceptions.CartNotFoundException;
+import com.gftworkshop.cartMicroservice.exceptions.CartVersionConflictException;
 import com.gftworkshop.cartMicroservice.model.Cart;
+import jakarta.transaction.Transactional;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
+    @Query("SELECT new com.gftworkshop.cartMicroservice.repositories.AbandonedCart(c.id, c.updatedAt) "
+            + "FROM Cart c WHERE c.updatedAt < :thresholdDate")
+    List<AbandonedCart> identifyAbandonedCarts(@Param("thresholdDate") LocalDate thresholdDate);
+
+    @EntityGraph(attributePaths = "cartProducts")
     @Query("SELECT c FROM Cart c WHERE c.updatedAt < :thresholdDate")
-    List<Cart> identifyAbandonedCarts(@Param("thresholdDate") LocalDate thresholdDate);
+    List<Cart> findAbandonedCartsWithProducts(@Param("thresholdDate") LocalDate thresholdDate);
 
     @Query("SELECT c FROM Cart c WHERE c.userId = :userId")
     Optional<Cart> findByUserId(@Param("userId") Long userId);
+
+    @Override
+    @EntityGraph(attributePaths = "cartProducts")
+    List<Cart> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "cartProducts")
+    Optional<Cart> findById(Long id);
+
+    @Query("SELECT c.id FROM Cart c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @EntityGraph(attributePaths = "cartProducts")
+    @Query("SELECT c FROM Cart c WHERE c.id IN :ids ORDER BY c.id")
+    List<Cart> findAllByIdInOrderById(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "cartProducts")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Cart c ORDER BY c.id")
+    Stream<Cart> streamAllOrderById();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Cart c SET c.version = c.version + 1, c.updatedAt = :updatedAt "
+            + "WHERE c.id = :id AND (:expectedVersion IS NULL OR c.version = :expectedVersion)")
+    int bumpVersion(@Param("id") Long id, @Param("expectedVersion") Long expectedVersion, @Param("updatedAt") LocalDate updatedAt);
+
+    @Query("SELECT c.version FROM Cart c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    default long incrementVersion(Long id, Long expectedVersion) {
+        if (bumpVersion(id, expectedVersion, LocalDate.now()) == 0) {
+            Long currentVersion = findVersionById(id)
+                    .orElseThrow(() -> new CartNotFoundException("Cart with ID " + id + " not found"));
+            throw new CartVersionConflictException("Cart with ID " + id + " is at version " + currentVersion
+                    + ", expected " + expectedVersion);
+        }
+        if (expectedVersion != null) {
+            return expectedVersion + 1;
+        }
+        return findVersionById(id)
+                .orElseThrow(() -> new CartNotFoundException("Cart with ID " + id + " not found"));
+    }
 }
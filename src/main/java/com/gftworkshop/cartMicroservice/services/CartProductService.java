@@ -1,11 +1,9 @@
 package com.gftworkshop.cartMicroservice.services;
 
-import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
-
 public interface CartProductService {
 
-    int updateQuantity(Long id, int quantity);
+    long updateQuantity(Long id, int quantity, Long expectedCartVersion);
 
-    CartProductDto removeProduct(Long id);
+    RemovedCartProduct removeProduct(Long id, Long expectedCartVersion);
 
 }
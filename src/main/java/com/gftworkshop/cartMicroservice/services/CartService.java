@@ -8,11 +8,11 @@ import java.time.LocalDate;
 import java.util.List;
 
 public interface CartService {
-    void addProductToCart(CartProduct cartProduct);
+    long addProductToCart(CartProduct cartProduct, Long expectedVersion);
 
     BigDecimal calculateCartTotal(Long cartId, Long userId);
 
-    void emptyCart(Long cartId);
+    long emptyCart(Long cartId, Long expectedVersion);
 
     List<CartDto> identifyAbandonedCarts(LocalDate thresholdDate);
 
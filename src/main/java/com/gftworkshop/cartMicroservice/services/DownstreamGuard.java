@@ -0,0 +1,128 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+public class DownstreamGuard {
+
+    public static final String REMOTE_CALLS_METRIC = "cart.remote.calls";
+    static final String NO_STATUS = "NONE";
+
+    private final String service;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final MeterRegistry meterRegistry;
+
+    public DownstreamGuard(String service, CircuitBreaker circuitBreaker, Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        this.service = service;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T call(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = guarded(call).get();
+            record(sample, operation, null);
+            return result;
+        } catch (RuntimeException e) {
+            record(sample, operation, e);
+            throw translate(e);
+        }
+    }
+
+    public <T> Mono<T> callReactive(String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call.transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .doOnSuccess(result -> record(sample, operation, null))
+                    .doOnError(failure -> record(sample, operation, failure))
+                    .onErrorMap(CallNotPermittedException.class, e -> circuitOpen())
+                    .onErrorMap(BulkheadFullException.class, e -> bulkheadFull());
+        });
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    private <T> Supplier<T> guarded(Supplier<T> call) {
+        return CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, call));
+    }
+
+    private RuntimeException translate(RuntimeException failure) {
+        if (failure instanceof CallNotPermittedException) {
+            return circuitOpen();
+        }
+        if (failure instanceof BulkheadFullException) {
+            return bulkheadFull();
+        }
+        return failure;
+    }
+
+    private void record(Timer.Sample sample, String operation, Throwable failure) {
+        int status = statusOf(failure);
+        sample.stop(Timer.builder(REMOTE_CALLS_METRIC)
+                .description("Calls to downstream microservices")
+                .tag("service", service.toLowerCase(Locale.ROOT))
+                .tag("operation", operation)
+                .tag("outcome", outcomeOf(failure, status))
+                .tag("status", status > 0 ? String.valueOf(status) : NO_STATUS)
+                .register(meterRegistry));
+    }
+
+    static int statusOf(Throwable failure) {
+        if (failure == null) {
+            return 200;
+        }
+        if (failure instanceof ExternalMicroserviceException exception) {
+            return exception.getStatusCode();
+        }
+        if (failure instanceof RestClientResponseException exception) {
+            return exception.getStatusCode().value();
+        }
+        if (failure instanceof WebClientResponseException exception) {
+            return exception.getStatusCode().value();
+        }
+        return 0;
+    }
+
+    static String outcomeOf(Throwable failure, int status) {
+        if (failure == null) {
+            return "SUCCESS";
+        }
+        if (failure instanceof CallNotPermittedException || failure instanceof BulkheadFullException) {
+            return "REJECTED";
+        }
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "UNAVAILABLE";
+    }
+
+    private ExternalMicroserviceException circuitOpen() {
+        return new ExternalMicroserviceException(service + " MICROSERVICE EXCEPTION: circuit breaker is open");
+    }
+
+    private ExternalMicroserviceException bulkheadFull() {
+        return new ExternalMicroserviceException(service + " MICROSERVICE EXCEPTION: too many concurrent calls");
+    }
+}
@@ -0,0 +1,169 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Slf4j
+public class ProductLookupCoalescer {
+
+    public static final String COALESCED_METRIC = "catalog.lookups.coalesced";
+    public static final String BATCHED_METRIC = "catalog.lookups.batched";
+    public static final String BATCH_SIZE_METRIC = "catalog.lookups.batch.size";
+
+    private final Function<List<Long>, List<Product>> batchLoader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ConcurrentMap<Long, CompletableFuture<Product>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final Counter coalesced;
+    private final Counter batched;
+    private final DistributionSummary batchSize;
+    private Batch openBatch;
+
+    public ProductLookupCoalescer(Function<List<Long>, List<Product>> batchLoader,
+                                  Duration window,
+                                  int maxBatchSize,
+                                  MeterRegistry meterRegistry) {
+        this.batchLoader = batchLoader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.coalesced = Counter.builder(COALESCED_METRIC)
+                .description("Product ids served by a catalog lookup already in flight")
+                .register(meterRegistry);
+        this.batched = Counter.builder(BATCHED_METRIC)
+                .description("Catalog byIds calls issued for micro-batched lookups")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder(BATCH_SIZE_METRIC)
+                .description("Product ids per micro-batched catalog call")
+                .register(meterRegistry);
+    }
+
+    public Product getProduct(Long productId) {
+        Product product = findProducts(List.of(productId)).stream().findFirst().orElse(null);
+        if (product == null) {
+            throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: product " + productId + " not found", 404);
+        }
+        return product;
+    }
+
+    public List<Product> findProducts(List<Long> productIds) {
+        Map<Long, CompletableFuture<Product>> futures = new LinkedHashMap<>();
+        Batch led = join(new LinkedHashSet<>(productIds), futures);
+        if (led != null) {
+            lead(led);
+        }
+        return futures.values().stream()
+                .map(ProductLookupCoalescer::await)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Batch join(Set<Long> productIds, Map<Long, CompletableFuture<Product>> futures) {
+        List<Long> missing = new ArrayList<>();
+        synchronized (lock) {
+            for (Long productId : productIds) {
+                CompletableFuture<Product> existing = inFlight.get(productId);
+                if (existing != null) {
+                    coalesced.increment();
+                    futures.put(productId, existing);
+                } else {
+                    CompletableFuture<Product> future = new CompletableFuture<>();
+                    inFlight.put(productId, future);
+                    futures.put(productId, future);
+                    missing.add(productId);
+                }
+            }
+            if (missing.isEmpty()) {
+                return null;
+            }
+            if (openBatch != null && openBatch.productIds.size() + missing.size() <= maxBatchSize) {
+                openBatch.productIds.addAll(missing);
+                if (openBatch.productIds.size() >= maxBatchSize) {
+                    openBatch = null;
+                    lock.notifyAll();
+                }
+                return null;
+            }
+            Batch batch = new Batch();
+            batch.productIds.addAll(missing);
+            if (openBatch == null && batch.productIds.size() < maxBatchSize) {
+                openBatch = batch;
+            }
+            return batch;
+        }
+    }
+
+    private void lead(Batch batch) {
+        List<Long> productIds;
+        synchronized (lock) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining;
+            while (openBatch == batch && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (openBatch == batch) {
+                openBatch = null;
+            }
+            productIds = List.copyOf(batch.productIds);
+        }
+        load(productIds);
+    }
+
+    private void load(List<Long> productIds) {
+        batched.increment();
+        batchSize.record(productIds.size());
+        log.debug("Fetching {} product ids from the catalog in one batch", productIds.size());
+        try {
+            Map<Long, Product> products = new HashMap<>();
+            batchLoader.apply(productIds).forEach(product -> products.put(product.getId(), product));
+            productIds.forEach(productId -> inFlight.remove(productId).complete(products.get(productId)));
+        } catch (RuntimeException | Error e) {
+            productIds.forEach(productId -> {
+                CompletableFuture<Product> future = inFlight.remove(productId);
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    private static Product await(CompletableFuture<Product> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Batch {
+        private final List<Long> productIds = new ArrayList<>();
+    }
+}
@@ -3,13 +3,16 @@ package com.gftworkshop.cartMicroservice.services;
 import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
 import com.gftworkshop.cartMicroservice.api.dto.Product;
 import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
@@ -17,70 +20,89 @@ import java.util.Objects;
 @Slf4j
 public class ProductService {
     private final RestClient restClient;
+    private final DownstreamGuard guard;
     private final String baseUrl;
     private final String productUri;
     private final String discountUrl;
+    private final ProductLookupCoalescer coalescer;
 
     public String findByIdsUrl;
     public String volumePromotionUrl;
 
 
-    public ProductService(RestClient restClient,
+    public ProductService(@Qualifier("catalogRestClient") RestClient restClient,
                           @Value("${catalog.api.base-url}") String baseUrl,
                           @Value("${catalog.api.product-uri}") String productUri,
                           @Value("${catalog.api.discount-uri}") String discountUrl,
                           @Value("${catalog.api.products-uri}") String findByIdsUrl,
-                          @Value("${catalog.api.volumePromotion-uri}") String volumePromotionUrl) {
+                          @Value("${catalog.api.volumePromotion-uri}") String volumePromotionUrl,
+                          @Qualifier("catalogGuard") DownstreamGuard guard,
+                          MeterRegistry meterRegistry,
+                          @Value("${catalog.coalescing.enabled:true}") boolean coalescingEnabled,
+                          @Value("${catalog.coalescing.window:PT0.002S}") Duration coalescingWindow,
+                          @Value("${catalog.coalescing.max-batch-size:100}") int maxBatchSize) {
         this.restClient = restClient;
+        this.guard = guard;
         this.baseUrl = baseUrl;
         this.productUri = productUri;
         this.discountUrl = discountUrl;
         this.findByIdsUrl=findByIdsUrl;
         this.volumePromotionUrl=volumePromotionUrl;
+        this.coalescer = coalescingEnabled
+                ? new ProductLookupCoalescer(this::fetchProductsByIds, coalescingWindow, maxBatchSize, meterRegistry)
+                : null;
     }
 
     public Product getProductById(Long productId) {
-        return restClient.get()
+        return coalescer != null ? coalescer.getProduct(productId) : fetchProductById(productId);
+    }
+
+    private Product fetchProductById(Long productId) {
+        return guard.call("getProductById", () -> restClient.get()
                 .uri(baseUrl + productUri, productId)
                 .retrieve()
                 .onStatus(HttpStatusCode::isError, ((request, response) -> {
-                    throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: " + response.getStatusText()+" "+response.getBody());
+                    throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: " + response.getStatusText()+" "+response.getBody(), response.getStatusCode().value());
                 }))
-                .body(Product.class);
+                .body(Product.class));
     }
 
     public float getProductDiscountedPrice(Long productId, int quantity) {
-        return restClient.get()
+        return guard.call("getProductDiscountedPrice", () -> restClient.get()
                 .uri(baseUrl + discountUrl, productId, quantity)
                 .retrieve()
                 .onStatus(HttpStatusCode::isError, ((request, response) -> {
-                    throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: " + response.getStatusText()+" "+response.getBody());
+                    throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: " + response.getStatusText()+" "+response.getBody(), response.getStatusCode().value());
                 }))
-                .body(Float.class);
+                .body(Float.class));
     }
 
 
 
     public List<Product> findProductsByIds(List<Long> ids){
+        return coalescer != null ? coalescer.findProducts(ids) : fetchProductsByIds(ids);
+    }
+
+    private List<Product> fetchProductsByIds(List<Long> ids) {
         String url = baseUrl + findByIdsUrl;
-        return List.of(Objects.requireNonNull(restClient.post()
+        return guard.call("findProductsByIds", () -> List.of(Objects.requireNonNull(restClient.post()
                 .uri(url)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(ids)
                 .retrieve()
-                .body(Product[].class)));
+                .body(Product[].class))));
     }
 
 
     public List<Product> getProductByIdWithDiscountedPrice(List<CartProductDto> cartProducts) {
-        return List.of(Objects.requireNonNull(restClient.post()
+        return guard.call("getProductByIdWithDiscountedPrice", () -> List.of(Objects.requireNonNull(restClient.post()
                 .uri(baseUrl + volumePromotionUrl)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(cartProducts)
                 .retrieve()
                 .onStatus(HttpStatusCode::isError, ((request, response) -> {
-                    throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: " + response.getStatusText()+" "+response.getBody());
+                    throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: " + response.getStatusText()+" "+response.getBody(), response.getStatusCode().value());
                 }))
-                .body(Product[].class)));
+                .body(Product[].class))));
     }
 }
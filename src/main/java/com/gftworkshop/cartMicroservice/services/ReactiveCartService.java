@@ -0,0 +1,119 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.api.dto.CartDto;
+import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.api.dto.Country;
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartCalculator;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartContext;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartManager;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartValidator;
+import com.gftworkshop.cartMicroservice.cartmanagement.UserCountryCache;
+import com.gftworkshop.cartMicroservice.entitymapper.EntityMapper;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class ReactiveCartService {
+
+    private final CartManager cartManager;
+    private final CartValidator cartValidator;
+    private final CartCalculator cartCalculator;
+    private final UserCountryCache userCountryCache;
+    private final ReactiveProductService productService;
+    private final ReactiveUserService userService;
+    private final Scheduler jpaScheduler;
+    private final Duration userTimeout;
+    private final Duration pricingTimeout;
+
+    public ReactiveCartService(CartManager cartManager,
+                               CartValidator cartValidator,
+                               CartCalculator cartCalculator,
+                               UserCountryCache userCountryCache,
+                               ReactiveProductService productService,
+                               ReactiveUserService userService,
+                               @Qualifier("jpaScheduler") Scheduler jpaScheduler,
+                               @Value("${cart.remote-calls.user-timeout:PT2S}") Duration userTimeout,
+                               @Value("${cart.remote-calls.pricing-timeout:PT3S}") Duration pricingTimeout) {
+        this.cartManager = cartManager;
+        this.cartValidator = cartValidator;
+        this.cartCalculator = cartCalculator;
+        this.userCountryCache = userCountryCache;
+        this.productService = productService;
+        this.userService = userService;
+        this.jpaScheduler = jpaScheduler;
+        this.userTimeout = userTimeout;
+        this.pricingTimeout = pricingTimeout;
+    }
+
+    public Mono<CartDto> fetchValidatedCart(Long cartId) {
+        return Mono.fromCallable(() -> cartManager.fetchCartById(cartId))
+                .subscribeOn(jpaScheduler)
+                .flatMap(cart -> fetchProductMap(cart).map(productMap -> new CartContext(cart, productMap)))
+                .flatMap(context -> Mono.fromCallable(() -> validateAndSave(context)).subscribeOn(jpaScheduler))
+                .flatMap(context -> calculateCartTotal(context).map(total -> {
+                    CartDto cartDto = EntityMapper.convertCartToDto(context.getCart());
+                    cartDto.setTotalPrice(total);
+                    return cartDto;
+                }));
+    }
+
+    private CartContext validateAndSave(CartContext context) {
+        cartValidator.validateCartProductsStock(context);
+        cartManager.updateAndSaveCartProductInfo(context);
+        return context;
+    }
+
+    private Mono<Map<Long, Product>> fetchProductMap(Cart cart) {
+        List<Long> productIds = cart.getCartProducts().stream()
+                .map(CartProduct::getProductId)
+                .toList();
+        if (productIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return withTimeout(productService.findProductsByIds(productIds), pricingTimeout, "CATALOG")
+                .map(products -> products.stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity())));
+    }
+
+    private Mono<BigDecimal> calculateCartTotal(CartContext context) {
+        List<CartProductDto> cartProductDtos = EntityMapper.convertToDtoList(context.getCart().getCartProducts());
+        Mono<List<Product>> products = cartProductDtos.isEmpty()
+                ? Mono.just(List.of())
+                : withTimeout(productService.getProductByIdWithDiscountedPrice(cartProductDtos), pricingTimeout, "CATALOG");
+        return Mono.zip(fetchCountry(context.getUserId()), products)
+                .map(tuple -> cartCalculator.computeCartTotal(tuple.getT2(), tuple.getT1()));
+    }
+
+    private Mono<Country> fetchCountry(Long userId) {
+        return userCountryCache.getCachedCountry(userId)
+                .map(Mono::just)
+                .orElseGet(() -> withTimeout(userService.getUserById(userId), userTimeout, "USER")
+                        .map(user -> {
+                            userCountryCache.remember(userId, user.getCountry());
+                            return user.getCountry();
+                        }));
+    }
+
+    private <T> Mono<T> withTimeout(Mono<T> call, Duration timeout, String service) {
+        return call.timeout(timeout)
+                .onErrorMap(TimeoutException.class, e -> new ExternalMicroserviceException(
+                        service + " MICROSERVICE EXCEPTION: no response within " + timeout.toMillis() + " ms"));
+    }
+}
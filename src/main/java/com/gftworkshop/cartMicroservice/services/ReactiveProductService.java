@@ -0,0 +1,62 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+public class ReactiveProductService {
+    private final WebClient webClient;
+    private final DownstreamGuard guard;
+    private final String baseUrl;
+    private final String findByIdsUrl;
+    private final String volumePromotionUrl;
+
+    public ReactiveProductService(@Qualifier("catalogWebClient") WebClient webClient,
+                                  @Value("${catalog.api.base-url}") String baseUrl,
+                                  @Value("${catalog.api.products-uri}") String findByIdsUrl,
+                                  @Value("${catalog.api.volumePromotion-uri}") String volumePromotionUrl,
+                                  @Qualifier("catalogGuard") DownstreamGuard guard) {
+        this.webClient = webClient;
+        this.guard = guard;
+        this.baseUrl = baseUrl;
+        this.findByIdsUrl = findByIdsUrl;
+        this.volumePromotionUrl = volumePromotionUrl;
+    }
+
+    public Mono<List<Product>> findProductsByIds(List<Long> ids) {
+        return postForProducts("findProductsByIds", baseUrl + findByIdsUrl, ids);
+    }
+
+    public Mono<List<Product>> getProductByIdWithDiscountedPrice(List<CartProductDto> cartProducts) {
+        return postForProducts("getProductByIdWithDiscountedPrice", baseUrl + volumePromotionUrl, cartProducts);
+    }
+
+    private Mono<List<Product>> postForProducts(String operation, String url, Object body) {
+        return guard.callReactive(operation, webClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, this::toException)
+                .bodyToFlux(Product.class)
+                .collectList());
+    }
+
+    private Mono<ExternalMicroserviceException> toException(ClientResponse response) {
+        return response.bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .map(body -> new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: "
+                        + response.statusCode() + " " + body, response.statusCode().value()));
+    }
+}
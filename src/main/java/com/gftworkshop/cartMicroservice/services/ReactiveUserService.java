@@ -0,0 +1,39 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.api.dto.User;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveUserService {
+    private final WebClient webClient;
+    private final DownstreamGuard guard;
+    private final String baseUrl;
+    private final String usersUri;
+
+    public ReactiveUserService(@Qualifier("userWebClient") WebClient webClient,
+                               @Value("${users.api.base-url}") String baseUrl,
+                               @Value("${users.api.users-uri}") String usersUri,
+                               @Qualifier("userGuard") DownstreamGuard guard) {
+        this.webClient = webClient;
+        this.guard = guard;
+        this.baseUrl = baseUrl;
+        this.usersUri = usersUri;
+    }
+
+    public Mono<User> getUserById(Long userId) {
+        return guard.callReactive("getUserById", webClient.get()
+                .uri(baseUrl + usersUri, userId)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> new ExternalMicroserviceException("USER MICROSERVICE EXCEPTION: "
+                                + response.statusCode() + " " + body, response.statusCode().value())))
+                .bodyToMono(User.class));
+    }
+}
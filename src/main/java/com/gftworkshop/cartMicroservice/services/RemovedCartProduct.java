@@ -0,0 +1,6 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+
+public record RemovedCartProduct(CartProductDto cartProduct, long cartVersion) {
+}
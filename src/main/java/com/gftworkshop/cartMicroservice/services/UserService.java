@@ -3,6 +3,7 @@ package com.gftworkshop.cartMicroservice.services;
 import com.gftworkshop.cartMicroservice.api.dto.User;
 import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
@@ -16,23 +17,26 @@ public class UserService {
     public String baseUrl;
     public String usersUri;
     private final RestClient restClient;
+    private final DownstreamGuard guard;
 
 
-    public UserService(RestClient restClient,
+    public UserService(@Qualifier("userRestClient") RestClient restClient,
                        @Value("${users.api.base-url}") String baseUrl,
-                       @Value("${users.api.users-uri}") String usersUri) {
+                       @Value("${users.api.users-uri}") String usersUri,
+                       @Qualifier("userGuard") DownstreamGuard guard) {
         this.restClient = restClient;
+        this.guard = guard;
         this.usersUri=usersUri;
         this.baseUrl=baseUrl;
     }
 
     public User getUserById(Long userId) {
-        return restClient.get()
+        return guard.call("getUserById", () -> restClient.get()
                 .uri(baseUrl + usersUri, userId)
                 .retrieve()
                 .onStatus(HttpStatusCode::isError, (request, response) -> {
-                    throw new ExternalMicroserviceException("USER MICROSERVICE EXCEPTION: " + response.getStatusText()+" "+response.getBody());
+                    throw new ExternalMicroserviceException("USER MICROSERVICE EXCEPTION: " + response.getStatusText()+" "+response.getBody(), response.getStatusCode().value());
                 })
-                .body(User.class);
+                .body(User.class));
     }
 }
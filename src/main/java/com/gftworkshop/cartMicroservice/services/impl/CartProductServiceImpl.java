@@ -1,61 +1,62 @@
 package com.gftworkshop.cartMicroservice.services.impl;
 
-import com.gftworkshop.cartMicroservice.exceptions.CartNotFoundException;
 import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartInvalidationBus;
 import com.gftworkshop.cartMicroservice.exceptions.CartProductInvalidQuantityException;
 import com.gftworkshop.cartMicroservice.exceptions.CartProductNotFoundException;
-import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
 import com.gftworkshop.cartMicroservice.repositories.CartProductRepository;
 import com.gftworkshop.cartMicroservice.repositories.CartRepository;
 import com.gftworkshop.cartMicroservice.services.CartProductService;
+import com.gftworkshop.cartMicroservice.services.RemovedCartProduct;
+import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-
 @Slf4j
 @Service
 public class CartProductServiceImpl implements CartProductService {
 
     private final CartProductRepository cartProductRepository;
     private final CartRepository cartRepository;
+    private final CartInvalidationBus cartInvalidationBus;
 
-    public CartProductServiceImpl(CartProductRepository cartProductRepository, CartRepository cartRepository) {
+    public CartProductServiceImpl(CartProductRepository cartProductRepository, CartRepository cartRepository,
+                                  CartInvalidationBus cartInvalidationBus) {
         this.cartProductRepository = cartProductRepository;
         this.cartRepository = cartRepository;
+        this.cartInvalidationBus = cartInvalidationBus;
     }
 
     @Override
-    public int updateQuantity(Long id, int quantity) {
+    @Transactional
+    public long updateQuantity(Long id, int quantity, Long expectedCartVersion) {
         if (quantity <= 0) {
             throw new CartProductInvalidQuantityException("The quantity must be higher than 0");
         }
 
-        Optional<CartProduct> cartProduct = cartProductRepository.findById(id);
-        if(cartProduct.isEmpty()){
-            throw new CartProductNotFoundException("CartProduct with ID " + id + " not found");
-        }
-        long cartId = cartProduct.get().getCart().getId();
+        CartProduct cartProduct = cartProductRepository.findById(id)
+                .orElseThrow(() -> new CartProductNotFoundException("CartProduct with ID " + id + " not found"));
+        long version = cartRepository.incrementVersion(cartProduct.getCart().getId(), expectedCartVersion);
+        cartInvalidationBus.publish(cartProduct.getCart().getId());
 
-        Optional<Cart> optionalCart = cartRepository.findById(cartId);
-        if (optionalCart.isEmpty()) {
-            throw new CartNotFoundException("Cart with ID " + cartId + " not found");
-        }
         log.info("Updating quantity for CartProduct with ID {} to {}", id, quantity);
-        int updatedQuantity = cartProductRepository.updateQuantity(id, quantity);
+        cartProductRepository.updateQuantity(id, quantity);
         log.info("Quantity updated successfully for CartProduct with ID {} to {}", id, quantity);
-        return updatedQuantity;
+        return version;
     }
 
     @Override
-    public CartProductDto removeProduct(Long id) {
+    @Transactional
+    public RemovedCartProduct removeProduct(Long id, Long expectedCartVersion) {
         log.info("Removing CartProduct with ID {}", id);
         return cartProductRepository.findById(id)
                 .map(cartProduct -> {
+                    long version = cartRepository.incrementVersion(cartProduct.getCart().getId(), expectedCartVersion);
+                    cartInvalidationBus.publish(cartProduct.getCart().getId());
                     cartProductRepository.deleteById(id);
-                    return entityToDto(cartProduct);
+                    return new RemovedCartProduct(entityToDto(cartProduct), version);
                 })
                 .orElseThrow(() -> new CartProductNotFoundException("No se encontró el CartProduct con ID: " + id));
     }
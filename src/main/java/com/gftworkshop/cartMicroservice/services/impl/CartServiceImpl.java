@@ -2,19 +2,26 @@ package com.gftworkshop.cartMicroservice.services.impl;
 
 import com.gftworkshop.cartMicroservice.api.dto.CartDto;
 import com.gftworkshop.cartMicroservice.cartmanagement.CartCalculator;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartContext;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartFreshnessCache;
 import com.gftworkshop.cartMicroservice.cartmanagement.CartManager;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartPage;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartPager;
 import com.gftworkshop.cartMicroservice.cartmanagement.CartValidator;
 import com.gftworkshop.cartMicroservice.entitymapper.EntityMapper;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
+import com.gftworkshop.cartMicroservice.repositories.AbandonedCart;
 import com.gftworkshop.cartMicroservice.services.CartService;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -23,19 +30,37 @@ public class CartServiceImpl implements CartService {
     private final CartManager cartManager;
     private final CartValidator cartValidator;
     private final CartCalculator cartCalculator;
+    private final CartPager cartPager;
+    private final CartFreshnessCache cartFreshnessCache;
 
-    public CartServiceImpl(CartManager cartManager, CartValidator cartValidator, CartCalculator cartCalculator) {
+    public CartServiceImpl(CartManager cartManager, CartValidator cartValidator, CartCalculator cartCalculator,
+                           CartPager cartPager, CartFreshnessCache cartFreshnessCache) {
         this.cartManager = cartManager;
         this.cartValidator = cartValidator;
         this.cartCalculator = cartCalculator;
+        this.cartPager = cartPager;
+        this.cartFreshnessCache = cartFreshnessCache;
     }
 
 
     @Override
-    public void addProductToCart(CartProduct cartProduct) {
-        cartManager.checkForAbandonedCarts();
-        cartValidator.validateProductStock(cartProduct);
-        cartManager.handleCartProduct(cartProduct);
+    @Transactional
+    public long addProductToCart(CartProduct cartProduct, Long expectedVersion) {
+        int availableStock = cartValidator.validateProductStock(cartProduct);
+        long version = cartManager.bumpCartVersion(cartProduct.getCart().getId(), expectedVersion);
+        int totalQuantity = cartManager.handleCartProduct(cartProduct);
+        cartValidator.validateQuantity(totalQuantity, availableStock);
+        return version;
+    }
+
+    @Transactional
+    public long addProductsToCart(Long cartId, List<CartProduct> cartProducts, Long expectedVersion) {
+        long version = cartManager.bumpCartVersion(cartId, expectedVersion);
+        Map<Long, CartProduct> mergedCartProducts = cartManager.mergeCartProducts(cartProducts);
+        Map<Long, CartProduct> existingCartProducts = cartManager.findExistingCartProducts(cartId, mergedCartProducts.keySet());
+        cartValidator.validateProductsStock(mergedCartProducts.values(), existingCartProducts);
+        cartManager.saveCartProducts(cartId, mergedCartProducts.values(), existingCartProducts);
+        return version;
     }
 
     @Override
@@ -45,24 +70,22 @@ public class CartServiceImpl implements CartService {
 
     @Override
     @Transactional
-    public void emptyCart(Long cartId) {
-        cartManager.checkForAbandonedCarts();
-        Cart cart = cartManager.fetchCartById(cartId);
-        cartManager.clearCartProducts(cartId, cart);
-        cartManager.updateCartTimestamp(cart);
-        cartManager.saveCart(cart);
+    public long emptyCart(Long cartId, Long expectedVersion) {
+        long version = cartManager.bumpCartVersion(cartId, expectedVersion);
+        int removed = cartManager.clearCartProducts(cartId);
+        log.debug("Cart {}: {} lines removed", cartId, removed);
+        return version;
     }
 
     @Override
     public List<CartDto> identifyAbandonedCarts(LocalDate thresholdDate) {
         List<Cart> abandonedCarts = cartManager.fetchAbandonedCarts(thresholdDate);
-        cartManager.logAbandonedCartsInfo(abandonedCarts, thresholdDate);
+        cartManager.logAbandonedCartsInfo(abandonedCarts.stream().map(AbandonedCart::of).toList(), thresholdDate);
         return cartManager.convertCartsToDto(abandonedCarts);
     }
 
     @Override
     public CartDto createCart(Long userId) {
-        cartManager.checkForAbandonedCarts();
         cartManager.ensureUserDoesNotAlreadyHaveCart(userId);
         Cart cart = cartManager.buildAndSaveCart(userId);
         return EntityMapper.convertCartToDto(cart);
@@ -70,14 +93,28 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public CartDto fetchValidatedCart(Long cartId) {
-        cartManager.checkForAbandonedCarts();
-        Cart cart = cartManager.fetchCartById(cartId);
-        cartValidator.validateCartProductsStock(cart);
-        cartManager.updateAndSaveCartProductInfo(cart);
-        return cartManager.prepareCartDto(cart);
+        CartContext context = cartManager.loadCartContext(cartId);
+        cartValidator.validateCartProductsStock(context);
+        cartManager.updateAndSaveCartProductInfo(context);
+        CartDto cartDto = cartManager.prepareCartDto(context);
+        cartFreshnessCache.markValidated(cartId, cartDto.getVersion());
+        return cartDto;
+    }
+
+    public boolean isCartUnchanged(Long cartId, Long version) {
+        if (!cartFreshnessCache.isValidated(cartId, version)) {
+            return false;
+        }
+        return cartManager.fetchCartVersion(cartId)
+                .map(version::equals)
+                .orElse(false);
+    }
+
+    public CartPage fetchCartPage(Long afterId, Integer size) {
+        return cartPager.fetchPage(afterId, size);
     }
 
-    public List<Cart> fetchAllCarts() {
-        return cartManager.fetchAllCarts();
+    public long exportCarts(OutputStream out) {
+        return cartPager.exportCarts(out);
     }
 }
@@ -0,0 +1,9 @@
+-- Ids come from pooled sequences so Hibernate can batch inserts; each call reserves a block of 50 ids.
+CREATE SEQUENCE cart_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE cart_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM cart);
+
+CREATE SEQUENCE cart_products_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE cart_products_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM cart_products);
+
+ALTER TABLE cart_products ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE cart ALTER COLUMN id DROP IDENTITY;
@@ -0,0 +1,9 @@
+-- Fold duplicated lines left by concurrent adds into the oldest one before enforcing one line per product.
+UPDATE cart_products c
+SET quantity = (SELECT SUM(d.quantity) FROM cart_products d WHERE d.cart_id = c.cart_id AND d.product_id = c.product_id)
+WHERE c.id = (SELECT MIN(d.id) FROM cart_products d WHERE d.cart_id = c.cart_id AND d.product_id = c.product_id);
+
+DELETE FROM cart_products c
+WHERE c.id > (SELECT MIN(d.id) FROM cart_products d WHERE d.cart_id = c.cart_id AND d.product_id = c.product_id);
+
+ALTER TABLE cart_products ADD CONSTRAINT uk_cart_products_cart_product UNIQUE (cart_id, product_id);
@@ -0,0 +1,2 @@
+ALTER TABLE cart ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE cart_products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Per-request lookups by owner and the abandoned-cart range scan; cart_products lookups by cart (and product)
+-- are served by the leading cart_id column of uk_cart_products_cart_product.
+CREATE INDEX idx_cart_user_id ON cart (user_id);
+CREATE INDEX idx_cart_updated_at ON cart (updated_at);
@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS cart (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT,
+    updated_at DATETIME
+);
+
+CREATE TABLE IF NOT EXISTS cart_products (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cart_id BIGINT,
+    product_id BIGINT,
+    product_name VARCHAR(255),
+    product_description VARCHAR(255),
+    quantity INT,
+    price DECIMAL(10, 2),
+    FOREIGN KEY (cart_id) REFERENCES cart(id)
+);
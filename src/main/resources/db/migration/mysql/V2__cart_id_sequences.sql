@@ -0,0 +1,16 @@
+-- MySQL has no sequences; Hibernate emulates them with single-row tables holding the next free id.
+CREATE TABLE cart_seq (
+    next_val BIGINT NOT NULL
+);
+INSERT INTO cart_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM cart;
+
+CREATE TABLE cart_products_seq (
+    next_val BIGINT NOT NULL
+);
+INSERT INTO cart_products_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM cart_products;
+
+ALTER TABLE cart_products MODIFY id BIGINT NOT NULL;
+
+SET FOREIGN_KEY_CHECKS = 0;
+ALTER TABLE cart MODIFY id BIGINT NOT NULL;
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,12 @@
+-- Fold duplicated lines left by concurrent adds into the oldest one before enforcing one line per product.
+UPDATE cart_products c
+JOIN (SELECT cart_id, product_id, MIN(id) AS keep_id, SUM(quantity) AS total
+      FROM cart_products
+      GROUP BY cart_id, product_id
+      HAVING COUNT(*) > 1) d ON c.id = d.keep_id
+SET c.quantity = d.total;
+
+DELETE c FROM cart_products c
+JOIN cart_products k ON c.cart_id = k.cart_id AND c.product_id = k.product_id AND c.id > k.id;
+
+ALTER TABLE cart_products ADD CONSTRAINT uk_cart_products_cart_product UNIQUE (cart_id, product_id);
@@ -0,0 +1,9 @@
+-- Cart ids written by any replica; every other replica polls this table and evicts its cached copies.
+CREATE TABLE IF NOT EXISTS cart_invalidation (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cart_id BIGINT NOT NULL,
+    node_id VARCHAR(64) NOT NULL,
+    created_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+CREATE INDEX idx_cart_invalidation_created_at ON cart_invalidation (created_at);
@@ -1,22 +1,3 @@
--- Create the 'cart' table
-CREATE TABLE IF NOT EXISTS cart (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    user_id BIGINT,
-    updated_at TIMESTAMP
-);
-
--- Create the 'cart_products' table
-CREATE TABLE IF NOT EXISTS cart_products (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    cart_id BIGINT,
-    product_id BIGINT,
-    product_name VARCHAR(255),
-    product_description VARCHAR(255),
-    quantity INT,
-    price DECIMAL(10, 2),
-    FOREIGN KEY (cart_id) REFERENCES cart(id)
-);
-
 -- Insert data into 'cart'
 INSERT INTO cart (user_id, updated_at) VALUES (1, '2024-05-01 12:00:00');
 INSERT INTO cart (user_id, updated_at) VALUES (2, '2024-05-02 12:00:00');
@@ -0,0 +1,85 @@
+package com.gftworkshop.cartMicroservice.Integration;
+
+import com.gftworkshop.cartMicroservice.CartMicroserviceApplication;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartManager;
+import com.gftworkshop.cartMicroservice.cartmanagement.OutboxCartInvalidationBus;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import com.gftworkshop.cartMicroservice.services.CartProductService;
+import com.gftworkshop.cartMicroservice.services.CartService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Cart invalidation across two nodes")
+class CartInvalidationTwoNodeIntegrationTest {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(CartMicroserviceApplication.class)
+                .profiles("dev")
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:two-nodes;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--cart.invalidation.bus=outbox",
+                        "--cart.invalidation.node-id=" + nodeId,
+                        "--cart.invalidation.poll-interval=PT1H",
+                        "--cart.abandoned-carts.sweep-enabled=false");
+    }
+
+    private static int quantityOf(Cart cart, Long cartProductId) {
+        return cart.getCartProducts().stream()
+                .filter(cartProduct -> cartProduct.getId().equals(cartProductId))
+                .findFirst()
+                .map(CartProduct::getQuantity)
+                .orElse(0);
+    }
+
+    @Test
+    @DisplayName("A quantity change on one node evicts the cart cached by the other node")
+    void testQuantityChangeInvalidatesOtherNode() {
+        CartManager readerA = nodeA.getBean(CartManager.class);
+        CartProduct line = readerA.fetchCartById(1L).getCartProducts().get(0);
+        int newQuantity = line.getQuantity() + 1;
+
+        nodeB.getBean(CartProductService.class).updateQuantity(line.getId(), newQuantity, null);
+
+        assertEquals(line.getQuantity(), quantityOf(readerA.fetchCartById(1L), line.getId()));
+        assertEquals(0, nodeB.getBean(OutboxCartInvalidationBus.class).poll());
+        assertEquals(1, nodeA.getBean(OutboxCartInvalidationBus.class).poll());
+        assertEquals(newQuantity, quantityOf(readerA.fetchCartById(1L), line.getId()));
+        assertEquals(0, nodeA.getBean(OutboxCartInvalidationBus.class).poll());
+    }
+
+    @Test
+    @DisplayName("Emptying a cart on one node evicts it on the other node")
+    void testEmptyCartInvalidatesOtherNode() {
+        CartManager readerB = nodeB.getBean(CartManager.class);
+        assertTrue(readerB.fetchCartById(2L).getCartProducts().size() > 0);
+
+        nodeA.getBean(CartService.class).emptyCart(2L, null);
+        nodeB.getBean(OutboxCartInvalidationBus.class).poll();
+
+        assertEquals(0, readerB.fetchCartById(2L).getCartProducts().size());
+    }
+}
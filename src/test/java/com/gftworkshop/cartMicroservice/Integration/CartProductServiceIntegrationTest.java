@@ -1,11 +1,12 @@
 package com.gftworkshop.cartMicroservice.Integration;
 
-import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartInvalidationBus;
 import com.gftworkshop.cartMicroservice.exceptions.CartProductInvalidQuantityException;
 import com.gftworkshop.cartMicroservice.exceptions.CartProductNotFoundException;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
 import com.gftworkshop.cartMicroservice.repositories.CartProductRepository;
 import com.gftworkshop.cartMicroservice.repositories.CartRepository;
+import com.gftworkshop.cartMicroservice.services.RemovedCartProduct;
 import com.gftworkshop.cartMicroservice.services.impl.CartProductServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,20 +37,25 @@ public class CartProductServiceIntegrationTest {
     @Autowired
     private CartProductRepository cartProductRepository;
 
+    @Autowired
+    private CartInvalidationBus cartInvalidationBus;
+
     @BeforeEach
     void setUp() throws IOException {
-        cartProductService = new CartProductServiceImpl(cartProductRepository, cartRepository);
+        cartProductService = new CartProductServiceImpl(cartProductRepository, cartRepository, cartInvalidationBus);
     }
 
     @Test
-    public void whenUpdateQuantityWithValidIdThenReturnUpdatedQuantity() {
+    public void whenUpdateQuantityWithValidIdThenReturnNewCartVersion() {
         Long cartProductId = 4L;
         int newQuantity = 5;
-        int expectedResponse = 1;
+        Long cartId = cartProductRepository.findById(cartProductId).orElseThrow().getCart().getId();
+        long expectedVersion = cartRepository.findVersionById(cartId).orElseThrow() + 1;
 
-        int actualResponse = cartProductService.updateQuantity(cartProductId, newQuantity);
+        long actualVersion = cartProductService.updateQuantity(cartProductId, newQuantity, null);
 
-        assertEquals(actualResponse, expectedResponse);
+        assertEquals(expectedVersion, actualVersion);
+        assertEquals(newQuantity, cartProductRepository.findById(cartProductId).orElseThrow().getQuantity());
     }
 
     @Test
@@ -58,7 +64,7 @@ public class CartProductServiceIntegrationTest {
         int newQuantity = 0;
 
         assertThrows(CartProductInvalidQuantityException.class, () -> {
-            cartProductService.updateQuantity(CartProductId, newQuantity);
+            cartProductService.updateQuantity(CartProductId, newQuantity, null);
         });
     }
 
@@ -68,7 +74,7 @@ public class CartProductServiceIntegrationTest {
         int newQuantity = 5;
 
         assertThrows(CartProductNotFoundException.class, () -> {
-            cartProductService.updateQuantity(CartProductId, newQuantity);
+            cartProductService.updateQuantity(CartProductId, newQuantity, null);
         });
     }
 
@@ -78,9 +84,9 @@ public class CartProductServiceIntegrationTest {
         CartProduct mockCartProduct = new CartProduct();
         mockCartProduct.setId(cartProductId);
 
-        CartProductDto result = cartProductService.removeProduct(cartProductId);
+        RemovedCartProduct result = cartProductService.removeProduct(cartProductId, null);
 
-        assertNotNull(result);
+        assertNotNull(result.cartProduct());
     }
 
     @Test
@@ -88,7 +94,7 @@ public class CartProductServiceIntegrationTest {
         Long cartProductId = 999L;
 
         assertThrows(CartProductNotFoundException.class, () -> {
-            cartProductService.removeProduct(cartProductId);
+            cartProductService.removeProduct(cartProductId, null);
         });
     }
 }
@@ -6,7 +6,9 @@ import com.gftworkshop.cartMicroservice.api.dto.Country;
 import com.gftworkshop.cartMicroservice.api.dto.Product;
 import com.gftworkshop.cartMicroservice.api.dto.User;
 import com.gftworkshop.cartMicroservice.cartmanagement.CartCalculator;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartFreshnessCache;
 import com.gftworkshop.cartMicroservice.cartmanagement.CartManager;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartPager;
 import com.gftworkshop.cartMicroservice.cartmanagement.CartValidator;
 import com.gftworkshop.cartMicroservice.entitymapper.EntityMapper;
 import com.gftworkshop.cartMicroservice.model.Cart;
@@ -62,6 +64,12 @@ class CartServiceImplIntegrationTest {
     @Autowired
     private CartCalculator cartCalculator;
 
+    @Autowired
+    private CartPager cartPager;
+
+    @Autowired
+    private CartFreshnessCache cartFreshnessCache;
+
     @Autowired
     private UserService userService;
 
@@ -78,7 +86,7 @@ class CartServiceImplIntegrationTest {
 
     @BeforeEach
     public void setUp() {
-        cartService = new CartServiceImpl(cartManager, cartValidator, cartCalculator);
+        cartService = new CartServiceImpl(cartManager, cartValidator, cartCalculator, cartPager, cartFreshnessCache);
 
         wireMockServer.stubFor(WireMock.get(urlMatching("/users/.*"))
                 .willReturn(
@@ -133,7 +141,7 @@ class CartServiceImplIntegrationTest {
                 .productDescription(product.getDescription())
                 .build();
 
-        cartService.addProductToCart(cartProduct);
+        cartService.addProductToCart(cartProduct, null);
 
         Optional<CartProduct> addedProduct = cartProductRepository.findById(cartProduct.getId());
         assertTrue(addedProduct.isPresent());
@@ -221,7 +229,7 @@ class CartServiceImplIntegrationTest {
         cart.getCartProducts().add(cartProduct);
         cart = cartRepository.save(cart);
 
-        cartService.emptyCart(cart.getId());
+        cartService.emptyCart(cart.getId(), null);
 
         Optional<Cart> updatedCart = cartRepository.findById(cart.getId());
         assertTrue(updatedCart.isPresent());
@@ -249,7 +257,6 @@ class CartServiceImplIntegrationTest {
                 .build();
 
         CartProduct cartProduct1 = CartProduct.builder()
-                .id(1L)
                 .cart(cart1)
                 .productId(product1.getId())
                 .quantity(2)
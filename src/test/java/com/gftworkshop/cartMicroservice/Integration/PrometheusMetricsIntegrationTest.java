@@ -0,0 +1,63 @@
+package com.gftworkshop.cartMicroservice.Integration;
+
+import com.gftworkshop.cartMicroservice.cartmanagement.CartManager;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartValidator;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "cart.abandoned-carts.sweep-enabled=false")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("dev")
+@DisplayName("Prometheus metrics integration tests")
+class PrometheusMetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CartValidator cartValidator;
+
+    @Autowired
+    private CartManager cartManager;
+
+    @Test
+    @DisplayName("Pipeline stages are timed with histogram buckets on the Prometheus endpoint")
+    void testPipelineStagesAreExported() throws Exception {
+        cartValidator.validateCartProductsStock(Cart.builder().id(1L).cartProducts(new ArrayList<>()).build());
+        cartManager.identifyAbandonedCarts(LocalDate.now().minusDays(1));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("cart_pipeline_seconds_bucket{")))
+                .andExpect(content().string(containsString("stage=\"validate-stock\"")))
+                .andExpect(content().string(containsString("stage=\"abandoned-scan\"")));
+    }
+
+    @Test
+    @DisplayName("Loading a cart records its size on the Prometheus endpoint")
+    void testCartSizeIsExported() throws Exception {
+        Cart cart = cartManager.buildAndSaveCart(9001L);
+        cartManager.loadCartContext(cart.getId());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("cart_size_lines_bucket{")))
+                .andExpect(content().string(containsString("stage=\"load-cart\"")));
+    }
+}
@@ -3,8 +3,12 @@ package com.gftworkshop.cartMicroservice.api.dto.controller;
 import com.gftworkshop.cartMicroservice.api.dto.CartDto;
 import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
 import com.gftworkshop.cartMicroservice.api.dto.UpdatedCartProductDto;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartPage;
+import com.gftworkshop.cartMicroservice.exceptions.CartVersionConflictException;
+import com.gftworkshop.cartMicroservice.exceptions.GlobalExceptionHandler;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
+import com.gftworkshop.cartMicroservice.services.RemovedCartProduct;
 import com.gftworkshop.cartMicroservice.services.impl.CartProductServiceImpl;
 import com.gftworkshop.cartMicroservice.services.impl.CartServiceImpl;
 import lombok.extern.slf4j.Slf4j;
@@ -12,20 +16,31 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Slf4j
@@ -44,7 +59,7 @@ class CartControllerTest {
     void setUp() {
         cartService = mock(CartServiceImpl.class);
         cartProductService = mock(CartProductServiceImpl.class);
-        cartController = new CartController(cartService, cartProductService);
+        cartController = new CartController(cartService, cartProductService, Duration.ofMinutes(30));
         mockMvc = MockMvcBuilders.standaloneSetup(cartController).build();
         cartId = 1L;
         productId = 1L;
@@ -104,6 +119,97 @@ class CartControllerTest {
                             .contentType(MediaType.APPLICATION_JSON))
                     .andExpect(status().isOk());
         }
+
+        @Test
+        @DisplayName("When getting a versioned cart, then the version is returned as ETag")
+        void getCartByIdETagTest() throws Exception {
+            CartDto cart = CartDto.builder().id(cartId).version(7L).build();
+
+            when(cartService.fetchValidatedCart(cartId)).thenReturn(cart);
+
+            mockMvc.perform(get("/carts/{id}", cartId))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+        }
+
+        @Test
+        @DisplayName("When If-None-Match holds a fresh current version, then expect NOT MODIFIED without validating")
+        void getCartByIdNotModifiedTest() throws Exception {
+            when(cartService.isCartUnchanged(cartId, 7L)).thenReturn(true);
+
+            mockMvc.perform(get("/carts/{id}", cartId)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                    .andExpect(content().string(""));
+
+            verify(cartService, never()).fetchValidatedCart(any());
+        }
+
+        @Test
+        @DisplayName("When If-None-Match no longer matches, then expect the full cart with a new ETag")
+        void getCartByIdModifiedTest() throws Exception {
+            CartDto cart = CartDto.builder().id(cartId).version(8L).build();
+
+            when(cartService.isCartUnchanged(cartId, 7L)).thenReturn(false);
+            when(cartService.fetchValidatedCart(cartId)).thenReturn(cart);
+
+            mockMvc.perform(get("/carts/{id}", cartId)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"8\""));
+        }
+
+        @Test
+        @DisplayName("When If-None-Match is not a cart version, then the cart is validated as usual")
+        void getCartByIdUnknownIfNoneMatchTest() throws Exception {
+            when(cartService.fetchValidatedCart(cartId)).thenReturn(CartDto.builder().id(cartId).build());
+
+            mockMvc.perform(get("/carts/{id}", cartId)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                    .andExpect(status().isOk());
+
+            verify(cartService, never()).isCartUnchanged(any(), any());
+        }
+
+        @Test
+        @DisplayName("When removing cart with If-Match, then the expected version is passed on")
+        void removeCartByIdIfMatchTest() throws Exception {
+            when(cartService.emptyCart(cartId, 7L)).thenReturn(8L);
+
+            mockMvc.perform(delete("/carts/{id}", cartId)
+                            .header(HttpHeaders.IF_MATCH, "W/\"7\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"8\""));
+
+            verify(cartService, times(1)).emptyCart(cartId, 7L);
+        }
+
+        @Test
+        @DisplayName("When the If-Match version is stale, then expect PRECONDITION FAILED status")
+        void removeCartByIdStaleIfMatchTest() throws Exception {
+            MockMvc mockMvcWithAdvice = MockMvcBuilders.standaloneSetup(cartController)
+                    .setControllerAdvice(new GlobalExceptionHandler())
+                    .build();
+            doThrow(new CartVersionConflictException("Cart with ID 1 is at version 8, expected 7"))
+                    .when(cartService).emptyCart(cartId, 7L);
+
+            mockMvcWithAdvice.perform(delete("/carts/{id}", cartId)
+                            .header(HttpHeaders.IF_MATCH, "\"7\""))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        @DisplayName("When If-Match is a wildcard, then the write is not conditional")
+        void updateProductWildcardIfMatchTest() throws Exception {
+            mockMvc.perform(patch("/carts/products")
+                            .header(HttpHeaders.IF_MATCH, "*")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(requestBodyCartProduct))
+                    .andExpect(status().isOk());
+
+            verify(cartProductService, times(1)).updateQuantity(isNull(), eq(5), isNull());
+        }
     }
 
     @Nested
@@ -120,12 +226,30 @@ class CartControllerTest {
         }
 
         @Test
-        @DisplayName("When updating product, then expect OK status")
+        @DisplayName("When adding several products to a cart, then expect CREATED status")
+        void addProductsTest() throws Exception {
+            when(cartService.addProductsToCart(eq(cartId), anyList(), isNull())).thenReturn(4L);
+
+            mockMvc.perform(post("/carts/{id}/products", cartId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[" + requestBodyCartProduct + "," + requestBodyCartProduct + "]"))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Location", "/carts/" + cartId))
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+            verify(cartService, times(1)).addProductsToCart(eq(cartId), argThat(lines -> lines.size() == 2), isNull());
+        }
+
+        @Test
+        @DisplayName("When updating product, then expect OK status and the new cart ETag")
         void updateProductTest() throws Exception {
+            when(cartProductService.updateQuantity(isNull(), eq(5), isNull())).thenReturn(3L);
+
             mockMvc.perform(patch("/carts/products")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(requestBodyCartProduct))
-                    .andExpect(status().isOk());
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
         }
 
         @Test
@@ -133,10 +257,11 @@ class CartControllerTest {
         void removeProductByIdTest() throws Exception {
             CartProductDto cartProduct = CartProductDto.builder().id(productId).build();
 
-            when(cartProductService.removeProduct(anyLong())).thenReturn(cartProduct);
+            when(cartProductService.removeProduct(anyLong(), any())).thenReturn(new RemovedCartProduct(cartProduct, 6L));
             mockMvc.perform(delete("/carts/products/{id}", productId)
                             .contentType(MediaType.APPLICATION_JSON))
-                    .andExpect(status().isOk());
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"6\""));
         }
     }
 
@@ -155,10 +280,13 @@ class CartControllerTest {
                     .price(BigDecimal.TEN)
                     .build();
 
-            ResponseEntity<?> response = cartController.addProduct(cartProduct);
+            when(cartService.addProductToCart(cartProduct, null)).thenReturn(3L);
+
+            ResponseEntity<?> response = cartController.addProduct(cartProduct, null);
 
             assertEquals(HttpStatus.CREATED, response.getStatusCode());
-            verify(cartService, times(1)).addProductToCart(cartProduct);
+            assertEquals("\"3\"", response.getHeaders().getETag());
+            verify(cartService, times(1)).addProductToCart(cartProduct, null);
         }
 
 
@@ -189,7 +317,7 @@ class CartControllerTest {
 
             when(cartService.fetchValidatedCart(cartId)).thenReturn(cart);
 
-            ResponseEntity<?> response = cartController.getCartById(String.valueOf(cart.getId()));
+            ResponseEntity<?> response = cartController.getCartById(String.valueOf(cart.getId()), null);
 
             verify(cartService, times(1)).fetchValidatedCart(cartId);
             assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -200,12 +328,13 @@ class CartControllerTest {
         @Test
         @DisplayName("When removing cart by ID, then expect OK status")
         void removeCartByIdTest() {
-            doNothing().when(cartService).emptyCart(cartId);
+            when(cartService.emptyCart(cartId, null)).thenReturn(5L);
 
-            ResponseEntity<?> response = cartController.removeCartById(String.valueOf(cartId));
+            ResponseEntity<?> response = cartController.removeCartById(String.valueOf(cartId), null);
 
-            verify(cartService, times(1)).emptyCart(cartId);
+            verify(cartService, times(1)).emptyCart(cartId, null);
             assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("\"5\"", response.getHeaders().getETag());
         }
 
 
@@ -223,12 +352,13 @@ class CartControllerTest {
             cartProduct.setId(productId);
             cartProduct.setQuantity(newQuantity);
 
-            when(cartProductService.updateQuantity(productId, newQuantity)).thenReturn(ResponseEntity.ok().build().getStatusCode().value());
+            when(cartProductService.updateQuantity(productId, newQuantity, null)).thenReturn(2L);
 
-            ResponseEntity<?> response = cartController.updateProduct(cartProduct);
+            ResponseEntity<?> response = cartController.updateProduct(cartProduct, null);
 
-            verify(cartProductService, times(1)).updateQuantity(productId, newQuantity);
+            verify(cartProductService, times(1)).updateQuantity(productId, newQuantity, null);
             assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("\"2\"", response.getHeaders().getETag());
         }
 
         @Test
@@ -236,12 +366,13 @@ class CartControllerTest {
         void removeProductByIdTest() throws Exception {
             CartProductDto cartProduct = CartProductDto.builder().build();
 
-            when(cartProductService.removeProduct(anyLong())).thenReturn(cartProduct);
+            when(cartProductService.removeProduct(anyLong(), any())).thenReturn(new RemovedCartProduct(cartProduct, 2L));
 
-            ResponseEntity<?> response = cartController.removeProductById(String.valueOf(productId));
+            ResponseEntity<?> response = cartController.removeProductById(String.valueOf(productId), null);
 
-            assertEquals(ResponseEntity.ok(cartProduct), response);
+            assertEquals(cartProduct, response.getBody());
             assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("\"2\"", response.getHeaders().getETag());
         }
     }
 
@@ -253,13 +384,52 @@ class CartControllerTest {
         Cart cart2 = Cart.builder().id(2L).build();
         carts.add(cart1);
         carts.add(cart2);
-        when(cartService.fetchAllCarts()).thenReturn(carts);
+        when(cartService.fetchCartPage(null, null)).thenReturn(new CartPage(carts, null));
 
-        ResponseEntity<List<Cart>> response = cartController.getAllCarts();
+        ResponseEntity<List<Cart>> response = cartController.getAllCarts(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(carts, response.getBody());
-        verify(cartService, times(1)).fetchAllCarts();
+        assertNull(response.getHeaders().getFirst(CartController.NEXT_CURSOR_HEADER));
+        verify(cartService, times(1)).fetchCartPage(null, null);
+    }
+
+    @Test
+    @DisplayName("When getting a page of carts and more carts follow, then expect the next cursor header")
+    void getAllCartsNextCursorTest() throws Exception {
+        when(cartService.fetchCartPage(5L, 2))
+                .thenReturn(new CartPage(List.of(Cart.builder().id(6L).build(), Cart.builder().id(7L).build()), 7L));
+
+        mockMvc.perform(get("/carts").param("after", "5").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CartController.NEXT_CURSOR_HEADER, "7"));
+    }
+
+    @Test
+    @DisplayName("When exporting carts, then expect one JSON document per line")
+    void exportCartsTest() throws Exception {
+        when(cartService.exportCarts(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes());
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/carts/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CartController.NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    @DisplayName("When exporting carts, then only the export gets the long async timeout")
+    void exportCartsTimeoutTest() {
+        WebAsyncTask<Void> task = cartController.exportCarts(new MockHttpServletResponse());
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), task.getTimeout());
     }
 
     @Test
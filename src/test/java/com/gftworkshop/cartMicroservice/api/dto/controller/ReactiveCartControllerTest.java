@@ -0,0 +1,67 @@
+package com.gftworkshop.cartMicroservice.api.dto.controller;
+
+import com.gftworkshop.cartMicroservice.api.dto.CartDto;
+import com.gftworkshop.cartMicroservice.exceptions.CartNotFoundException;
+import com.gftworkshop.cartMicroservice.exceptions.GlobalExceptionHandler;
+import com.gftworkshop.cartMicroservice.services.ReactiveCartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@DisplayName("ReactiveCartController Unit Tests")
+class ReactiveCartControllerTest {
+
+    private MockMvc mockMvc;
+    private ReactiveCartService reactiveCartService;
+
+    @BeforeEach
+    void setUp() {
+        reactiveCartService = mock(ReactiveCartService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ReactiveCartController(reactiveCartService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("When getting a cart reactively, then the cart and its total are returned")
+    void getCartByIdTest() throws Exception {
+        CartDto cartDto = CartDto.builder().id(1L).userId(7L).cartProducts(List.of()).totalPrice(new BigDecimal("38")).build();
+        when(reactiveCartService.fetchValidatedCart(1L)).thenReturn(Mono.just(cartDto));
+
+        MvcResult result = mockMvc.perform(get("/reactive/carts/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.totalPrice").value(38));
+    }
+
+    @Test
+    @DisplayName("When the cart does not exist, then expect NOT_FOUND status")
+    void getCartByIdNotFoundTest() throws Exception {
+        when(reactiveCartService.fetchValidatedCart(9L))
+                .thenReturn(Mono.error(new CartNotFoundException("Cart with ID 9 not found")));
+
+        MvcResult result = mockMvc.perform(get("/reactive/carts/9"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+}
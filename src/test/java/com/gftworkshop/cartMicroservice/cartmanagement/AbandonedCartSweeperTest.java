@@ -0,0 +1,78 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AbandonedCartSweeper Unit Tests")
+class AbandonedCartSweeperTest {
+
+    private CartManager cartManager;
+    private SimpleMeterRegistry meterRegistry;
+    private AbandonedCartSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        cartManager = mock(CartManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new AbandonedCartSweeper(cartManager, meterRegistry, Period.ofDays(1));
+    }
+
+    @Test
+    @DisplayName("Test sweep - scans with the configured threshold and records metrics")
+    void testSweepRecordsMetrics() {
+        LocalDate thresholdDate = LocalDate.now().minusDays(1);
+        when(cartManager.identifyAbandonedCarts(thresholdDate)).thenReturn(3);
+
+        sweeper.sweep();
+
+        verify(cartManager, times(1)).identifyAbandonedCarts(thresholdDate);
+        assertEquals(3.0, meterRegistry.get("cart.abandoned.found").counter().count());
+        assertEquals(3.0, meterRegistry.get("cart.abandoned.last").gauge().value());
+        assertEquals(1L, meterRegistry.get("cart.abandoned.sweep").timer().count());
+        assertFalse(sweeper.isRunning());
+    }
+
+    @Test
+    @DisplayName("Test sweep - failure is logged and the guard is released")
+    void testSweepFailureReleasesGuard() {
+        when(cartManager.identifyAbandonedCarts(any())).thenThrow(new RuntimeException("DB down"));
+
+        assertDoesNotThrow(() -> sweeper.sweep());
+
+        assertFalse(sweeper.isRunning());
+    }
+
+    @Test
+    @DisplayName("Test sweep - concurrent sweep is skipped while one is in flight")
+    void testSweepSingleFlight() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(cartManager.identifyAbandonedCarts(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 0;
+        });
+
+        Thread first = new Thread(sweeper::sweep);
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        sweeper.sweep();
+        release.countDown();
+        first.join();
+
+        verify(cartManager, times(1)).identifyAbandonedCarts(any());
+        assertEquals(1.0, meterRegistry.get("cart.abandoned.sweep.skipped").counter().count());
+    }
+}
@@ -3,19 +3,29 @@ package com.gftworkshop.cartMicroservice.cartmanagement;
 import com.gftworkshop.cartMicroservice.api.dto.Country;
 import com.gftworkshop.cartMicroservice.api.dto.Product;
 import com.gftworkshop.cartMicroservice.api.dto.User;
+import com.gftworkshop.cartMicroservice.config.ShippingProperties;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
 import com.gftworkshop.cartMicroservice.repositories.CartRepository;
 import com.gftworkshop.cartMicroservice.services.ProductService;
 import com.gftworkshop.cartMicroservice.services.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @DisplayName("CartCalculator Unit Tests")
@@ -24,14 +34,29 @@ class CartCalculatorTest {
     private ProductService productService;
     private UserService userService;
     private CartRepository cartRepository;
+    private UserCountryCache userCountryCache;
     private CartCalculator cartCalculator;
+    private ExecutorService remoteCallExecutor;
+    private ShippingProperties shippingProperties;
 
     @BeforeEach
     void setUp() {
+        remoteCallExecutor = Executors.newFixedThreadPool(2);
         productService = mock(ProductService.class);
         userService = mock(UserService.class);
         cartRepository = mock(CartRepository.class);
-        cartCalculator = new CartCalculator(productService, userService, cartRepository);
+        VolumePriceCache volumePriceCache = new VolumePriceCache(productService, new SimpleMeterRegistry(), Duration.ofSeconds(5), 100);
+        userCountryCache = new UserCountryCache(userService, new SimpleMeterRegistry(),
+                Duration.ofMinutes(10), 100, Duration.ofHours(1), 10);
+        shippingProperties = new ShippingProperties();
+        cartCalculator = new CartCalculator(volumePriceCache, userCountryCache,
+                new ShippingTierRegistry(shippingProperties), cartRepository,
+                new TaskExecutorAdapter(remoteCallExecutor), Duration.ofMillis(500), Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void tearDown() {
+        remoteCallExecutor.shutdownNow();
     }
 
     @Test
@@ -65,6 +90,133 @@ class CartCalculatorTest {
     }
 
 
+    @Test
+    @DisplayName("Test calculateCartTotal - context does not reload the cart")
+    void testCalculateCartTotalWithContext() {
+        Long userId = 1L;
+        User user = User.builder().country(new Country(1L, 10.0)).id(userId).build();
+        List<CartProduct> cartProducts = List.of(
+                CartProduct.builder().productId(1L).quantity(1).price(new BigDecimal("10")).build()
+        );
+        Cart cart = Cart.builder().id(1L).userId(userId).cartProducts(cartProducts).build();
+        CartContext context = new CartContext(cart, Map.of());
+
+        when(userService.getUserById(userId)).thenReturn(user);
+        when(productService.getProductByIdWithDiscountedPrice(anyList()))
+                .thenReturn(List.of(Product.builder().id(1L).price(new BigDecimal("10")).weight(1.0).build()));
+
+        BigDecimal cartTotal = cartCalculator.calculateCartTotal(context);
+
+        assertEquals(new BigDecimal("16.0"), cartTotal);
+        verifyNoInteractions(cartRepository);
+    }
+
+    @Test
+    @DisplayName("Test calculateCartTotal - user and pricing calls run concurrently")
+    void testCalculateCartTotalFansOut() {
+        Long userId = 1L;
+        Cart cart = Cart.builder().id(1L).userId(userId).cartProducts(List.of(
+                CartProduct.builder().productId(1L).quantity(1).build())).build();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        when(userService.getUserById(userId)).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(1, TimeUnit.SECONDS));
+            return User.builder().id(userId).country(new Country(1L, 10.0)).build();
+        });
+        when(productService.getProductByIdWithDiscountedPrice(anyList())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(1, TimeUnit.SECONDS));
+            return List.of(Product.builder().id(1L).price(new BigDecimal("10")).weight(1.0).build());
+        });
+
+        BigDecimal cartTotal = cartCalculator.calculateCartTotal(new CartContext(cart, Map.of()));
+
+        assertEquals(new BigDecimal("16.0"), cartTotal);
+    }
+
+    @Test
+    @DisplayName("Test calculateCartTotal - cached country skips the user service")
+    void testCalculateCartTotalUsesCachedCountry() {
+        Long userId = 1L;
+        Cart cart = Cart.builder().id(1L).userId(userId).cartProducts(List.of(
+                CartProduct.builder().productId(1L).quantity(1).build())).build();
+
+        when(userService.getUserById(userId))
+                .thenReturn(User.builder().id(userId).country(new Country(1L, 10.0)).build());
+        when(productService.getProductByIdWithDiscountedPrice(anyList()))
+                .thenReturn(List.of(Product.builder().id(1L).price(new BigDecimal("10")).weight(1.0).build()));
+
+        cartCalculator.calculateCartTotal(new CartContext(cart, Map.of()));
+        BigDecimal cartTotal = cartCalculator.calculateCartTotal(new CartContext(cart, Map.of()));
+
+        assertEquals(new BigDecimal("16.0"), cartTotal);
+        verify(userService, times(1)).getUserById(userId);
+    }
+
+    @Test
+    @DisplayName("Test calculateCartTotal - first failure is propagated")
+    void testCalculateCartTotalPropagatesFailure() {
+        Cart cart = Cart.builder().id(1L).userId(1L).cartProducts(List.of(
+                CartProduct.builder().productId(1L).quantity(1).build())).build();
+
+        when(userService.getUserById(1L)).thenThrow(new ExternalMicroserviceException("USER MICROSERVICE EXCEPTION: 500"));
+        when(productService.getProductByIdWithDiscountedPrice(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return List.of();
+        });
+
+        long start = System.nanoTime();
+        ExternalMicroserviceException exception = assertThrows(ExternalMicroserviceException.class,
+                () -> cartCalculator.calculateCartTotal(new CartContext(cart, Map.of())));
+
+        assertEquals("USER MICROSERVICE EXCEPTION: 500", exception.getMessage());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+    }
+
+    @Test
+    @DisplayName("Test calculateCartTotal - slow downstream call times out")
+    void testCalculateCartTotalTimesOut() {
+        Cart cart = Cart.builder().id(1L).userId(1L).cartProducts(List.of(
+                CartProduct.builder().productId(1L).quantity(1).build())).build();
+
+        when(userService.getUserById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return new User();
+        });
+        when(productService.getProductByIdWithDiscountedPrice(anyList()))
+                .thenReturn(List.of(Product.builder().id(1L).price(BigDecimal.TEN).weight(1.0).build()));
+
+        ExternalMicroserviceException exception = assertThrows(ExternalMicroserviceException.class,
+                () -> cartCalculator.calculateCartTotal(new CartContext(cart, Map.of())));
+
+        assertTrue(exception.getMessage().startsWith("USER MICROSERVICE EXCEPTION"));
+    }
+
+    @Test
+    @DisplayName("Test calculateCartTotal - timed out call is interrupted")
+    void testCalculateCartTotalInterruptsTimedOutCall() throws InterruptedException {
+        Cart cart = Cart.builder().id(1L).userId(1L).cartProducts(List.of(
+                CartProduct.builder().productId(1L).quantity(1).build())).build();
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        when(userService.getUserById(1L)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return new User();
+        });
+        when(productService.getProductByIdWithDiscountedPrice(anyList()))
+                .thenReturn(List.of(Product.builder().id(1L).price(BigDecimal.TEN).weight(1.0).build()));
+
+        assertThrows(ExternalMicroserviceException.class,
+                () -> cartCalculator.calculateCartTotal(new CartContext(cart, Map.of())));
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
     @Test
     @DisplayName("Test computeProductTotal")
     void testComputeProductTotal() {
@@ -104,19 +256,29 @@ class CartCalculatorTest {
     void testComputeShippingCost() {
         // Given
         double totalWeight = 15.0;
-        List<AbstractMap.SimpleEntry<Double, BigDecimal>> weightCosts = List.of(
-                new AbstractMap.SimpleEntry<>(5.0, BigDecimal.valueOf(5)),
-                new AbstractMap.SimpleEntry<>(10.0, BigDecimal.valueOf(10)),
-                new AbstractMap.SimpleEntry<>(20.0, BigDecimal.valueOf(20)),
-                new AbstractMap.SimpleEntry<>(Double.MAX_VALUE, BigDecimal.valueOf(50))
-        );
         BigDecimal expectedShippingCost = BigDecimal.valueOf(20);
 
         // When
-        BigDecimal shippingCost = cartCalculator.findShippingCostForWeight(totalWeight, weightCosts);
+        BigDecimal shippingCost = cartCalculator.computeShippingCost(totalWeight);
+
+        // Then
+        assertEquals(0, expectedShippingCost.compareTo(shippingCost));
+    }
+
+    @Test
+    @DisplayName("Test computeShippingCost - country with its own tiers")
+    void testComputeShippingCostForCountry() {
+        // Given
+        shippingProperties.setCountries(Map.of(2L, List.of(
+                new ShippingProperties.Tier(10.0, BigDecimal.ZERO),
+                new ShippingProperties.Tier(null, new BigDecimal("15")))));
+        ShippingTierRegistry registry = new ShippingTierRegistry(shippingProperties);
+        CartCalculator calculator = new CartCalculator(null, null, registry, cartRepository,
+                new TaskExecutorAdapter(remoteCallExecutor), Duration.ofMillis(500), Duration.ofMillis(500));
 
         // Then
-        assertEquals(expectedShippingCost, shippingCost);
+        assertEquals(0, BigDecimal.ZERO.compareTo(calculator.computeShippingCost(8.0, new Country(2L, 21.0))));
+        assertEquals(0, BigDecimal.TEN.compareTo(calculator.computeShippingCost(8.0, new Country(1L, 10.0))));
     }
 
     @Test
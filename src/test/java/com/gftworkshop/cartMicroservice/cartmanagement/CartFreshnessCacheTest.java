@@ -0,0 +1,53 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("CartFreshnessCache Unit Tests")
+class CartFreshnessCacheTest {
+
+    private CartFreshnessCache cartFreshnessCache;
+
+    @BeforeEach
+    void setUp() {
+        cartFreshnessCache = new CartFreshnessCache(new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    @DisplayName("Test isValidated - only the version that was validated is fresh")
+    void testIsValidatedMatchesVersion() {
+        cartFreshnessCache.markValidated(1L, 3L);
+
+        assertTrue(cartFreshnessCache.isValidated(1L, 3L));
+        assertFalse(cartFreshnessCache.isValidated(1L, 2L));
+        assertFalse(cartFreshnessCache.isValidated(2L, 3L));
+    }
+
+    @Test
+    @DisplayName("Test isValidated - entries expire after the staleness bound")
+    void testIsValidatedExpires() throws InterruptedException {
+        CartFreshnessCache shortLived = new CartFreshnessCache(new SimpleMeterRegistry(), Duration.ofMillis(50), 100);
+        shortLived.markValidated(1L, 3L);
+
+        Thread.sleep(100);
+
+        assertFalse(shortLived.isValidated(1L, 3L));
+    }
+
+    @Test
+    @DisplayName("Test invalidate - a cart can be forced back through validation")
+    void testInvalidate() {
+        cartFreshnessCache.markValidated(1L, 3L);
+
+        cartFreshnessCache.invalidate(1L);
+
+        assertFalse(cartFreshnessCache.isValidated(1L, 3L));
+    }
+}
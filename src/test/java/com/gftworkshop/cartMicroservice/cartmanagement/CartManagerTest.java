@@ -5,22 +5,30 @@ import com.gftworkshop.cartMicroservice.api.dto.CartDto;
 import com.gftworkshop.cartMicroservice.api.dto.Product;
 import com.gftworkshop.cartMicroservice.entitymapper.EntityMapper;
 import com.gftworkshop.cartMicroservice.exceptions.CartNotFoundException;
+import com.gftworkshop.cartMicroservice.exceptions.CartVersionConflictException;
 import com.gftworkshop.cartMicroservice.exceptions.UserWithCartException;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
+import com.gftworkshop.cartMicroservice.repositories.AbandonedCart;
+import com.gftworkshop.cartMicroservice.repositories.CartProductBatchRepository;
 import com.gftworkshop.cartMicroservice.repositories.CartProductRepository;
 import com.gftworkshop.cartMicroservice.repositories.CartRepository;
 import com.gftworkshop.cartMicroservice.services.ProductService;
 import com.gftworkshop.cartMicroservice.services.UserService;
 import com.mysql.cj.log.Log;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -53,6 +61,19 @@ class CartManagerTest {
     @Mock
     private CartCalculator cartCalculator;
 
+    @Mock
+    private CartProductBatchRepository cartProductBatchRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CartSnapshotCache cartSnapshotCache =
+            new CartSnapshotCache(new SimpleMeterRegistry(), false, Duration.ofMinutes(1), 100, 100);
+
+    @Mock
+    private CartInvalidationBus cartInvalidationBus;
+
     @InjectMocks
     private CartManager cartManager;
     @Mock
@@ -87,29 +108,6 @@ class CartManagerTest {
         assertEquals(cart, actualCart);
     }
 
-    @Test
-    @DisplayName("Test fetchAllCarts - Empty List")
-    void testFetchAllCartsEmpty() {
-        List<Cart> expectedCarts = new ArrayList<>();
-        when(cartRepository.findAll()).thenReturn(expectedCarts);
-
-        List<Cart> actualCarts = cartManager.fetchAllCarts();
-
-        assertEquals(expectedCarts, actualCarts);
-    }
-
-    @Test
-    @DisplayName("Test fetchAllCarts - Non-empty List")
-    void testFetchAllCartsNonEmpty() {
-        List<Cart> expectedCarts = new ArrayList<>();
-        expectedCarts.add(cart);
-        when(cartRepository.findAll()).thenReturn(expectedCarts);
-
-        List<Cart> actualCarts = cartManager.fetchAllCarts();
-
-        assertEquals(expectedCarts, actualCarts);
-    }
-
     @Test
     @DisplayName("Test fetchCartById - Nonexistent Cart")
     void testFetchCartByIdNonexistent() {
@@ -119,17 +117,6 @@ class CartManagerTest {
         assertThrows(CartNotFoundException.class, () -> cartManager.fetchCartById(cartId));
     }
 
-    @Test
-    @DisplayName("Test addCartProduct")
-    void testAddCartProduct() {
-        CartProduct cartProduct = new CartProduct();
-
-        cartManager.addCartProduct(cart, cartProduct);
-
-        assertTrue(cart.getCartProducts().contains(cartProduct));
-        assertEquals(cart, cartProduct.getCart());
-    }
-
     @Test
     @DisplayName("Test updateCartTimestamp")
     void testUpdateCartTimestamp() {
@@ -141,47 +128,49 @@ class CartManagerTest {
     }
 
     @Test
-    @DisplayName("Test handleCartProduct - Existing Product")
-    void testHandleCartProductExisting() {
-        cart.setId(1L);
-
-        CartProduct existingCartProduct = new CartProduct();
-        existingCartProduct.setCart(cart);
-        existingCartProduct.setProductId(1L);
-        existingCartProduct.setQuantity(2);
+    @DisplayName("Test handleCartProduct - upserts the line and returns the new quantity")
+    void testHandleCartProductUpserts() {
+        CartProduct newCartProduct = CartProduct.builder().cart(cart).productId(1L).quantity(3).build();
+        when(cartProductBatchRepository.upsertQuantity(1L, newCartProduct)).thenReturn(5);
 
-        CartProduct newCartProduct = new CartProduct();
-        newCartProduct.setCart(cart);
-        newCartProduct.setProductId(1L);
-        newCartProduct.setQuantity(3);
+        int totalQuantity = cartManager.handleCartProduct(newCartProduct);
 
-        when(cartProductRepository.findByCartIdAndProductId(cart.getId(), newCartProduct.getProductId()))
-                .thenReturn(Optional.of(existingCartProduct));
-
-        cartManager.handleCartProduct(newCartProduct);
-
-        assertEquals(5, existingCartProduct.getQuantity());
-        verify(cartProductRepository, times(1)).save(existingCartProduct);
+        assertEquals(5, totalQuantity);
+        verifyNoInteractions(cartProductRepository);
     }
 
     @Test
-    @DisplayName("Test handleCartProduct - New Product")
-    void testHandleCartProductNew() {
-        cart.setId(1L);
-
-        CartProduct newCartProduct = new CartProduct();
-        newCartProduct.setCart(cart);
-        newCartProduct.setProductId(1L);
-        newCartProduct.setQuantity(3);
-
-        when(cartProductRepository.findByCartIdAndProductId(cart.getId(), newCartProduct.getProductId()))
-                .thenReturn(Optional.empty());
-        when(cartRepository.findById(cart.getId())).thenReturn(Optional.of(cart));
+    @DisplayName("Test handleCartProduct - a concurrent insert is retried as an increment")
+    void testHandleCartProductRetriesDuplicateKey() {
+        CartProduct newCartProduct = CartProduct.builder().cart(cart).productId(1L).quantity(3).build();
+        when(cartProductBatchRepository.upsertQuantity(1L, newCartProduct))
+                .thenThrow(new DuplicateKeyException("uk_cart_products_cart_product"))
+                .thenReturn(6);
+
+        assertEquals(6, cartManager.handleCartProduct(newCartProduct));
+        verify(cartProductBatchRepository, times(2)).upsertQuantity(1L, newCartProduct);
+    }
 
-        cartManager.handleCartProduct(newCartProduct);
+    @Test
+    @DisplayName("Test handleCartProduct - Nonexistent Cart")
+    void testHandleCartProductNonexistentCart() {
+        CartProduct newCartProduct = CartProduct.builder().cart(cart).productId(1L).quantity(3).build();
+        when(cartProductBatchRepository.upsertQuantity(1L, newCartProduct))
+                .thenThrow(new DataIntegrityViolationException("fk cart_id"));
+        when(cartRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(CartNotFoundException.class, () -> cartManager.handleCartProduct(newCartProduct));
+    }
 
-        assertTrue(cart.getCartProducts().contains(newCartProduct));
-        verify(cartProductRepository, times(1)).save(newCartProduct);
+    @Test
+    @DisplayName("Test handleCartProduct - other integrity violations are not reported as a missing cart")
+    void testHandleCartProductOtherIntegrityViolation() {
+        CartProduct newCartProduct = CartProduct.builder().cart(cart).productId(1L).quantity(3).build();
+        when(cartProductBatchRepository.upsertQuantity(1L, newCartProduct))
+                .thenThrow(new DataIntegrityViolationException("product_name cannot be null"));
+        when(cartRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(DataIntegrityViolationException.class, () -> cartManager.handleCartProduct(newCartProduct));
     }
 
     @Test
@@ -239,7 +228,8 @@ class CartManagerTest {
         assertEquals("Test Product", cartProduct.getProductName());
         assertEquals(new BigDecimal("10.0"), cartProduct.getPrice());
         assertEquals("Test Description", cartProduct.getProductDescription());
-        verify(cartProductRepository, times(1)).saveAll(cart.getCartProducts());
+        verify(cartProductBatchRepository, times(1)).updateCatalogInfo(cart.getCartProducts());
+        verify(cartProductRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -272,11 +262,9 @@ class CartManagerTest {
         productMap.put(101L, product1);
         productMap.put(102L, product2);
 
-        when(cartProductRepository.saveAll(anyList())).thenReturn(cartProducts);
-
         cartManager.updateCartProductsInfo(cart, productMap);
 
-        verify(cartProductRepository, times(1)).saveAll(cartProducts);
+        verify(cartProductBatchRepository, times(1)).updateCatalogInfo(cartProducts);
 
         assertAll(
                 () -> assertNotNull(cartProduct1.getProductName(), "Product name should be set for cartProduct1"),
@@ -294,20 +282,58 @@ class CartManagerTest {
         cartManager.updateCartProductsInfo(cart, productMap);
 
         assertNull(cartProducts.get(0).getProductName(), "Product name should be null for cartProduct2");
-        verify(cartProductRepository, times(1)).saveAll(cart.getCartProducts());
+        verify(cartProductBatchRepository, times(1)).updateCatalogInfo(List.of());
+    }
+
+    @Test
+    @DisplayName("Test updateCartProductsInfo - unchanged lines are not written")
+    void testUpdateCartProductsInfoSkipsUnchangedLines() {
+        CartProduct unchanged = CartProduct.builder().id(1L).productId(101L).productName("Product1")
+                .productDescription("Description1").price(new BigDecimal("20.50")).build();
+        CartProduct changed = CartProduct.builder().id(2L).productId(102L).productName("Product2")
+                .productDescription("Description2").price(new BigDecimal("30.00")).build();
+        Cart cart = Cart.builder().id(1L).cartProducts(List.of(unchanged, changed)).build();
+        Product product1 = Product.builder().id(101L).name("Product1").description("Description1")
+                .price(new BigDecimal("20.5")).build();
+        Product product2 = Product.builder().id(102L).name("Product2").description("Description2")
+                .price(new BigDecimal("31.00")).build();
+
+        cartManager.updateCartProductsInfo(cart, Map.of(101L, product1, 102L, product2));
+
+        verify(cartProductBatchRepository, times(1)).updateCatalogInfo(List.of(changed));
+        assertEquals(new BigDecimal("31.00"), changed.getPrice());
+        assertEquals(1.0, meterRegistry.counter(CartManager.REFRESH_METRIC, "result", "written").count());
+        assertEquals(1.0, meterRegistry.counter(CartManager.REFRESH_METRIC, "result", "skipped").count());
+    }
+
+    @Test
+    @DisplayName("Test updateCartProductsInfo - a cart that matches the catalog causes no writes")
+    void testUpdateCartProductsInfoUnchangedCart() {
+        CartProduct line = CartProduct.builder().id(1L).productId(101L).productName("Product1")
+                .productDescription("Description1").price(new BigDecimal("7.89")).build();
+        Cart cart = Cart.builder().id(1L).cartProducts(List.of(line)).build();
+        Product product = Product.builder().id(101L).name("Product1").description("Description1")
+                .price(new BigDecimal("7.888")).build();
+
+        cartManager.updateCartProductsInfo(cart, Map.of(101L, product));
+
+        verify(cartProductBatchRepository, times(1)).updateCatalogInfo(List.of());
+        verifyNoInteractions(cartProductRepository);
+        assertEquals(new BigDecimal("7.89"), line.getPrice());
     }
 
     @Test
     @DisplayName("Test clearCartProducts")
     void testClearCartProducts() {
         Long cartId = 1L;
-        CartProduct cartProduct = new CartProduct();
-        cart.getCartProducts().add(cartProduct);
+        when(cartProductRepository.deleteAllByCartId(cartId)).thenReturn(2);
 
-        cartManager.clearCartProducts(cartId, cart);
+        int removed = cartManager.clearCartProducts(cartId);
 
-        assertTrue(cart.getCartProducts().isEmpty());
-        verify(cartProductRepository, times(1)).removeAllByCartId(cartId);
+        assertEquals(2, removed);
+        verify(cartProductRepository, times(1)).deleteAllByCartId(cartId);
+        verify(cartProductRepository, never()).findAll();
+        verify(cartInvalidationBus).publish(cartId);
     }
 
     @Test
@@ -319,15 +345,17 @@ class CartManagerTest {
     }
 
     @Test
-    @DisplayName("Test checkForAbandonedCarts")
-    public void testCheckForAbandonedCarts_NoAbandonedCarts() {
+    @DisplayName("Test identifyAbandonedCarts - returns the number of abandoned carts")
+    public void testIdentifyAbandonedCartsReturnsCount() {
         LocalDate thresholdDate = LocalDate.now().minusDays(1);
-        when(cartRepository.identifyAbandonedCarts(thresholdDate)).thenReturn(Collections.emptyList());
+        when(cartRepository.identifyAbandonedCarts(thresholdDate))
+                .thenReturn(List.of(AbandonedCart.of(cart), new AbandonedCart(2L, thresholdDate.minusDays(1))));
 
-        cartManager.checkForAbandonedCarts();
+        int found = cartManager.identifyAbandonedCarts(thresholdDate);
 
-        verify(log, never()).debug(anyString(), any(), any());
+        assertEquals(2, found);
         verify(cartRepository).identifyAbandonedCarts(thresholdDate);
+        verify(cartRepository, never()).findAbandonedCartsWithProducts(any());
     }
 
     @Test
@@ -356,13 +384,13 @@ class CartManagerTest {
     public void testIdentifyAbandonedCartsWithNoCarts() {
         LocalDate thresholdDate = LocalDate.now().minusDays(1);
         when(cartRepository.identifyAbandonedCarts(thresholdDate)).thenReturn(Collections.emptyList());
-        cartManager.identifyAbandonedCarts(thresholdDate);
+        assertEquals(0, cartManager.identifyAbandonedCarts(thresholdDate));
         verify(cartRepository).identifyAbandonedCarts(thresholdDate);
     }
 
     @Test
     public void testLogAbandonedCartsInfo_EmptyList() {
-        List<Cart> abandonedCarts = Collections.emptyList();
+        List<AbandonedCart> abandonedCarts = Collections.emptyList();
         LocalDate thresholdDate = LocalDate.now();
 
         cartManager.logAbandonedCartsInfo(abandonedCarts, thresholdDate);
@@ -373,8 +401,7 @@ class CartManagerTest {
 
     @Test
     public void testLogAbandonedCartsInfo_NonEmptyList() {
-        Cart cart1 = Cart.builder().updatedAt(LocalDate.now().minusDays(1)).build();
-        List<Cart> abandonedCarts = Arrays.asList(cart1);
+        List<AbandonedCart> abandonedCarts = List.of(new AbandonedCart(1L, LocalDate.now().minusDays(1)));
         LocalDate thresholdDate = LocalDate.now();
 
         cartManager.logAbandonedCartsInfo(abandonedCarts, thresholdDate);
@@ -390,68 +417,56 @@ class CartManagerTest {
         CartDto expectedCartDto = new CartDto();
         expectedCartDto.setTotalPrice(new BigDecimal("100.00"));
 
-        mockStatic(EntityMapper.class);
-        when(EntityMapper.convertCartToDto(cart)).thenReturn(expectedCartDto);
-        when(cartCalculator.calculateCartTotal(cart.getId(), cart.getUserId())).thenReturn(new BigDecimal("100.00"));
-
-        CartDto actualCartDto = cartManager.prepareCartDto(cart);
+        try (MockedStatic<EntityMapper> mocked = mockStatic(EntityMapper.class)) {
+            mocked.when(() -> EntityMapper.convertCartToDto(cart)).thenReturn(expectedCartDto);
+            when(cartCalculator.calculateCartTotal(cart.getId(), cart.getUserId())).thenReturn(new BigDecimal("100.00"));
 
-        assertEquals(expectedCartDto, actualCartDto);
-    }
-
-    @Test
-    @DisplayName("Test findExistingCartProduct - Existing Product")
-    void testFindExistingCartProductExistingProduct() {
-        CartProduct expectedCartProduct = new CartProduct();
-        expectedCartProduct.setId(1L);
-        expectedCartProduct.setCart(cart);
-        when(cartProductRepository.findByCartIdAndProductId(cart.getId(), expectedCartProduct.getProductId()))
-                .thenReturn(Optional.of(expectedCartProduct));
+            CartDto actualCartDto = cartManager.prepareCartDto(cart);
 
-        Optional<CartProduct> actualCartProduct = cartManager.findExistingCartProduct(expectedCartProduct);
-
-        assertEquals(Optional.of(expectedCartProduct), actualCartProduct);
+            assertEquals(expectedCartDto, actualCartDto);
+        }
     }
 
     @Test
-    @DisplayName("Test findExistingCartProduct - Nonexistent Product")
-    void testFindExistingCartProductNonexistentProduct() {
-        CartProduct cartProduct = new CartProduct();
-        cartProduct.setId(1L);
-        cartProduct.setCart(cart);
-        when(cartProductRepository.findByCartIdAndProductId(cart.getId(), cartProduct.getProductId()))
-                .thenReturn(Optional.empty());
+    @DisplayName("Test loadCartContext - one cart load and one catalog batch")
+    void testLoadCartContext() {
+        Product product = new Product();
+        product.setId(1L);
+        when(cartRepository.findById(1L)).thenReturn(Optional.of(cart));
+        when(productService.findProductsByIds(anyList())).thenReturn(Collections.singletonList(product));
 
-        Optional<CartProduct> actualCartProduct = cartManager.findExistingCartProduct(cartProduct);
+        CartContext context = cartManager.loadCartContext(1L);
 
-        assertEquals(Optional.empty(), actualCartProduct);
+        assertEquals(cart, context.getCart());
+        assertEquals(product, context.getProductMap().get(1L));
+        verify(cartRepository, times(1)).findById(1L);
+        verify(productService, times(1)).findProductsByIds(anyList());
     }
 
     @Test
-    @DisplayName("Test updateExistingCartProduct")
-    void testUpdateExistingCartProduct() {
-        CartProduct existingCartProduct = new CartProduct();
-        existingCartProduct.setQuantity(2);
-        CartProduct newCartProduct = new CartProduct();
-        newCartProduct.setQuantity(3);
+    @DisplayName("Test updateAndSaveCartProductInfo - context reuses the fetched products")
+    void testUpdateAndSaveCartProductInfoWithContext() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Test Product");
+        CartContext context = new CartContext(cart, Map.of(1L, product));
 
-        cartManager.updateExistingCartProduct(existingCartProduct, newCartProduct);
+        cartManager.updateAndSaveCartProductInfo(context);
 
-        assertEquals(5, existingCartProduct.getQuantity());
-        verify(cartProductRepository, times(1)).save(existingCartProduct);
+        assertEquals("Test Product", cart.getCartProducts().get(0).getProductName());
+        verifyNoInteractions(productService);
     }
 
     @Test
-    @DisplayName("Test addNewCartProduct")
-    void testAddNewCartProduct() {
-        CartProduct cartProduct = new CartProduct();
-        cartProduct.setCart(cart);
-        cart.setId(1L);
-        when(cartRepository.findById(cart.getId())).thenReturn(Optional.of(cart));
+    @DisplayName("Test prepareCartDto - context total")
+    void testPrepareCartDtoWithContext() {
+        CartContext context = new CartContext(cart, Map.of());
+        when(cartCalculator.calculateCartTotal(context)).thenReturn(new BigDecimal("42.00"));
 
-        cartManager.addNewCartProduct(cartProduct);
+        CartDto cartDto = cartManager.prepareCartDto(context);
 
-        verify(cartProductRepository, times(1)).save(cartProduct);
+        assertEquals(new BigDecimal("42.00"), cartDto.getTotalPrice());
+        verify(cartCalculator, never()).calculateCartTotal(anyLong(), anyLong());
     }
 
     @Test
@@ -471,4 +486,54 @@ class CartManagerTest {
         assertEquals(1, productMap.size());
         assertEquals(product, productMap.get(1L));
     }
+
+    @Test
+    @DisplayName("Test bumpCartVersion - the expected version is checked by the repository")
+    void testBumpCartVersion() {
+        cartManager.bumpCartVersion(1L, 3L);
+
+        verify(cartRepository, times(1)).incrementVersion(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Test bumpCartVersion - a stale version is reported as a conflict")
+    void testBumpCartVersionConflict() {
+        doThrow(new CartVersionConflictException("Cart with ID 1 is at version 4, expected 3"))
+                .when(cartRepository).incrementVersion(1L, 3L);
+
+        assertThrows(CartVersionConflictException.class, () -> cartManager.bumpCartVersion(1L, 3L));
+    }
+
+    @Test
+    @DisplayName("Test mergeCartProducts - repeated products are added up in request order")
+    void testMergeCartProducts() {
+        List<CartProduct> lines = List.of(
+                CartProduct.builder().productId(2L).quantity(1).build(),
+                CartProduct.builder().productId(1L).quantity(2).build(),
+                CartProduct.builder().productId(2L).quantity(3).build());
+
+        Map<Long, CartProduct> merged = cartManager.mergeCartProducts(lines);
+
+        assertEquals(List.of(2L, 1L), List.copyOf(merged.keySet()));
+        assertEquals(4, merged.get(2L).getQuantity());
+        assertEquals(2, merged.get(1L).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Test saveCartProducts - existing lines are updated in one batch and new lines saved together")
+    void testSaveCartProducts() {
+        CartProduct existing = CartProduct.builder().id(5L).productId(1L).quantity(2).build();
+        CartProduct increment = CartProduct.builder().productId(1L).quantity(3).build();
+        CartProduct newLine = CartProduct.builder().productId(9L).quantity(1).build();
+
+        when(cartRepository.getReferenceById(1L)).thenReturn(cart);
+
+        cartManager.saveCartProducts(1L, List.of(increment, newLine), Map.of(1L, existing));
+
+        verify(cartProductBatchRepository).updateQuantities(Map.of(5L, 5));
+        verify(cartProductRepository).saveAll(List.of(newLine));
+        verify(cartProductRepository, never()).save(any(CartProduct.class));
+        assertEquals(cart, newLine.getCart());
+        assertEquals(2, existing.getQuantity());
+    }
 }
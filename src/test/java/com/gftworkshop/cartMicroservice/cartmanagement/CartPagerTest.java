@@ -0,0 +1,123 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import com.gftworkshop.cartMicroservice.repositories.CartRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("dev")
+@DisplayName("CartPager Tests")
+class CartPagerTest {
+
+    private static final int CARTS = 7;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ObjectMapper objectMapper;
+    private CartPager cartPager;
+    private long totalCarts;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < CARTS; i++) {
+            Cart cart = Cart.builder()
+                    .userId(2000L + i)
+                    .updatedAt(LocalDate.now())
+                    .cartProducts(new ArrayList<>())
+                    .build();
+            for (long productId = 1; productId <= 2; productId++) {
+                cart.getCartProducts().add(CartProduct.builder()
+                        .cart(cart)
+                        .productId(productId)
+                        .productName("Product " + productId)
+                        .productDescription("Description " + productId)
+                        .quantity(1)
+                        .price(BigDecimal.ONE)
+                        .build());
+            }
+            entityManager.persist(cart);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        totalCarts = cartRepository.count();
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        cartPager = new CartPager(cartRepository, entityManager, objectMapper, 3, 5);
+    }
+
+    @Test
+    @DisplayName("When walking the cursor to the end, then every cart is returned once in id order")
+    void testFetchPageWalksAllCarts() {
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        do {
+            CartPage page = cartPager.fetchPage(cursor, null);
+            assertTrue(page.carts().size() <= 3);
+            page.carts().forEach(cart -> seen.add(cart.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(totalCarts, seen.size());
+        assertEquals(seen.stream().sorted().toList(), seen);
+    }
+
+    @Test
+    @DisplayName("When asking for more than the maximum page size, then the page is capped")
+    void testFetchPageCapsSize() {
+        CartPage page = cartPager.fetchPage(null, 1000);
+
+        assertEquals(5, page.carts().size());
+        assertEquals(page.carts().get(4).getId(), page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("When the cursor is past the last cart, then an empty page without cursor is returned")
+    void testFetchPagePastTheEnd() {
+        Long lastId = cartPager.fetchPage(null, 5).carts().get(0).getId() + totalCarts + 100;
+
+        CartPage page = cartPager.fetchPage(lastId, 2);
+
+        assertTrue(page.carts().isEmpty());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("When exporting, then each cart is written once as a JSON line with its products")
+    void testExportCartsWritesNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = cartPager.exportCarts(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(totalCarts, exported);
+        assertEquals(totalCarts, lines.length);
+        JsonNode last = objectMapper.readTree(lines[lines.length - 1]);
+        assertEquals(2006L, last.get("userId").asLong());
+        assertEquals(2, last.get("cartProducts").size());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
@@ -0,0 +1,141 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.exceptions.CartNotFoundException;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CartSnapshotCache Unit Tests")
+class CartSnapshotCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CartSnapshotCache cartSnapshotCache;
+    private AtomicInteger loads;
+    private Function<Long, Cart> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cartSnapshotCache = new CartSnapshotCache(meterRegistry, true, Duration.ofMinutes(1), 100, 100);
+        loads = new AtomicInteger();
+        loader = cartId -> {
+            loads.incrementAndGet();
+            return buildCart(cartId);
+        };
+    }
+
+    private Cart buildCart(Long cartId) {
+        Cart cart = Cart.builder()
+                .id(cartId)
+                .version(3L)
+                .userId(7L)
+                .updatedAt(LocalDate.of(2024, 5, 1))
+                .cartProducts(new ArrayList<>())
+                .build();
+        cart.getCartProducts().add(CartProduct.builder()
+                .id(10L)
+                .version(1L)
+                .cart(cart)
+                .productId(100L)
+                .productName("Product 100")
+                .productDescription("Description 100")
+                .quantity(2)
+                .price(new BigDecimal("9.99"))
+                .build());
+        return cart;
+    }
+
+    @Test
+    @DisplayName("Test getCart - repeated reads are served from the snapshot")
+    void testGetCartServesRepeatedReadsFromCache() {
+        Cart first = cartSnapshotCache.getCart(1L, loader);
+        Cart second = cartSnapshotCache.getCart(1L, loader);
+
+        assertEquals(1, loads.get());
+        assertNotSame(first, second);
+        assertEquals(3L, second.getVersion());
+        assertEquals(7L, second.getUserId());
+        CartProduct line = second.getCartProducts().get(0);
+        assertEquals(10L, line.getId());
+        assertEquals(100L, line.getProductId());
+        assertEquals(2, line.getQuantity());
+        assertEquals("Product 100", line.getProductName());
+        assertEquals(new BigDecimal("9.99"), line.getPrice());
+        assertSame(second, line.getCart());
+        assertEquals(0.5, meterRegistry.get(CartSnapshotCache.HIT_RATIO_METRIC).tag("cache", "cartSnapshots").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Test getCart - changes made by a reader do not leak into the snapshot")
+    void testGetCartReturnsIndependentCopies() {
+        Cart first = cartSnapshotCache.getCart(1L, loader);
+        first.setUpdatedAt(LocalDate.now());
+        first.getCartProducts().get(0).setPrice(BigDecimal.ONE);
+
+        Cart second = cartSnapshotCache.getCart(1L, loader);
+
+        assertEquals(LocalDate.of(2024, 5, 1), second.getUpdatedAt());
+        assertEquals(new BigDecimal("9.99"), second.getCartProducts().get(0).getPrice());
+    }
+
+    @Test
+    @DisplayName("Test invalidate - the next read goes back to the loader")
+    void testInvalidate() {
+        cartSnapshotCache.getCart(1L, loader);
+
+        cartSnapshotCache.invalidate(1L);
+        cartSnapshotCache.getCart(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Test invalidateCatalogInfo - a cart whose catalog fields were rewritten is reloaded")
+    void testInvalidateCatalogInfo() {
+        Cart cart = cartSnapshotCache.getCart(1L, loader);
+
+        cartSnapshotCache.invalidateCatalogInfo(cart.getCartProducts());
+        cartSnapshotCache.getCart(1L, loader);
+        cartSnapshotCache.getCart(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Test getCart - missing carts are not cached")
+    void testGetCartDoesNotCacheMissingCarts() {
+        Function<Long, Cart> missing = cartId -> {
+            loads.incrementAndGet();
+            throw new CartNotFoundException("Cart with ID " + cartId + " not found");
+        };
+
+        assertThrows(CartNotFoundException.class, () -> cartSnapshotCache.getCart(1L, missing));
+        cartSnapshotCache.getCart(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Test getCart - a disabled cache always reads through")
+    void testDisabledCacheReadsThrough() {
+        CartSnapshotCache disabled = new CartSnapshotCache(meterRegistry, false, Duration.ofMinutes(1), 100, 100);
+
+        List.of(1, 2, 3).forEach(i -> disabled.getCart(1L, loader));
+
+        assertFalse(disabled.isEnabled());
+        assertEquals(3, loads.get());
+    }
+}
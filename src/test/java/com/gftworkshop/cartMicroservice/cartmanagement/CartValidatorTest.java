@@ -2,9 +2,9 @@ package com.gftworkshop.cartMicroservice.cartmanagement;
 
 import com.gftworkshop.cartMicroservice.api.dto.Product;
 import com.gftworkshop.cartMicroservice.exceptions.CartProductInvalidQuantityException;
+import com.gftworkshop.cartMicroservice.exceptions.CartProductNotFoundException;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
-import com.gftworkshop.cartMicroservice.repositories.CartProductRepository;
 import com.gftworkshop.cartMicroservice.services.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,8 +15,8 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,7 +28,7 @@ class CartValidatorTest {
     private ProductService productService;
 
     @Mock
-    private CartProductRepository cartProductRepository;
+    private StockSnapshotCache stockSnapshotCache;
 
     @InjectMocks
     private CartValidator cartValidator;
@@ -50,11 +50,13 @@ class CartValidatorTest {
                 .build();
 
         // Mock
-        when(cartProductRepository.findByCartIdAndProductId(1L, 1L)).thenReturn(Optional.of(new CartProduct()));
-        when(productService.getProductById(1L)).thenReturn(new Product(1L, "Product", "Description", null, 5, null));
+        when(stockSnapshotCache.getAvailableStock(1L)).thenReturn(5);
 
-        // When / Then
-        assertDoesNotThrow(() -> cartValidator.validateProductStock(cartProduct));
+        // When
+        int availableStock = cartValidator.validateProductStock(cartProduct);
+
+        // Then
+        assertEquals(5, availableStock);
     }
 
     @Test
@@ -69,82 +71,25 @@ class CartValidatorTest {
                 .build();
 
         // Mock
-        when(cartProductRepository.findByCartIdAndProductId(1L, 1L)).thenReturn(Optional.of(new CartProduct()));
-        when(productService.getProductById(1L)).thenReturn(new Product(1L, "Product", "Description", null, 5, null));
+        when(stockSnapshotCache.getAvailableStock(1L)).thenReturn(5);
 
         // When / Then
         assertThrows(CartProductInvalidQuantityException.class, () -> cartValidator.validateProductStock(cartProduct));
     }
 
     @Test
-    @DisplayName("Test calculateTotalDesiredQuantity")
-    void testCalculateTotalDesiredQuantity() {
-        // Given
-        Cart cart = Cart.builder().id(1L).build();
-        CartProduct existingCartProduct = CartProduct.builder()
-                .cart(cart)
-                .productId(1L)
-                .quantity(3)
-                .build();
-
-        CartProduct newCartProduct = CartProduct.builder()
-                .cart(cart)
-                .productId(1L)
-                .quantity(2)
-                .build();
-
-        // Mock
-        when(cartProductRepository.findByCartIdAndProductId(1L, 1L)).thenReturn(Optional.of(existingCartProduct));
-
-        // When
-        int totalDesiredQuantity = cartValidator.calculateTotalDesiredQuantity(newCartProduct);
-
-        // Then
-        assertEquals(5, totalDesiredQuantity);
+    @DisplayName("Test validateQuantity - total within stock")
+    void testValidateQuantityWithinStock() {
+        assertDoesNotThrow(() -> cartValidator.validateQuantity(5, 5));
     }
 
     @Test
-    @DisplayName("Test getCurrentQuantity - cart product found")
-    void testGetCurrentQuantityCartProductFound() {
-        // Given
-        Cart cart = Cart.builder().id(1L).build();
-        CartProduct cartProductInRepo = CartProduct.builder()
-                .cart(cart)
-                .productId(1L)
-                .quantity(2)
-                .build();
+    @DisplayName("Test validateQuantity - total above stock")
+    void testValidateQuantityAboveStock() {
+        CartProductInvalidQuantityException exception = assertThrows(CartProductInvalidQuantityException.class,
+                () -> cartValidator.validateQuantity(6, 5));
 
-        CartProduct cartProductToCheck = CartProduct.builder()
-                .cart(cart)
-                .productId(1L)
-                .build();
-
-        // Mock
-        when(cartProductRepository.findByCartIdAndProductId(1L, 1L)).thenReturn(Optional.of(cartProductInRepo));
-
-        // When
-        int currentQuantity = cartValidator.getCurrentQuantity(cartProductToCheck);
-
-        // Then
-        assertEquals(2, currentQuantity);
-    }
-
-    @Test
-    @DisplayName("Test getCurrentQuantity - cart product not found")
-    void testGetCurrentQuantityCartProductNotFound() {
-        // Given
-        CartProduct cartProduct = CartProduct.builder()
-                .cart(Cart.builder().id(1L).build())
-                .productId(1L)
-                .build();
-
-        when(cartProductRepository.findByCartIdAndProductId(1L, 1L)).thenReturn(Optional.empty());
-
-        // When
-        int currentQuantity = cartValidator.getCurrentQuantity(cartProduct);
-
-        // Then
-        assertEquals(0, currentQuantity);
+        assertEquals(CartErrorMessages.NOT_ENOUGH_STOCK + 6 + CartErrorMessages.ACTUAL_STOCK + 5, exception.getMessage());
     }
 
     @Test
@@ -152,7 +97,7 @@ class CartValidatorTest {
     void testGetAvailableStock() {
         // Given
         CartProduct cartProduct = CartProduct.builder().productId(1L).build();
-        when(productService.getProductById(anyLong())).thenReturn(new Product(1L, "Product", "Description", null, 5, null));
+        when(stockSnapshotCache.getAvailableStock(anyLong())).thenReturn(5);
 
         // When
         int availableStock = cartValidator.getAvailableStock(cartProduct);
@@ -197,6 +142,41 @@ class CartValidatorTest {
         assertThrows(CartProductInvalidQuantityException.class, () -> cartValidator.validateCartProductsStock(cart));
     }
 
+    @Test
+    @DisplayName("Test validateCartProductsStock - context reuses the fetched products")
+    void testValidateCartProductsStockWithContext() {
+        // Given
+        CartProduct cartProduct = CartProduct.builder()
+                .productId(1L)
+                .quantity(2)
+                .build();
+        Cart cart = Cart.builder()
+                .cartProducts(Collections.singletonList(cartProduct))
+                .build();
+        Product product = new Product(1L, "Product", "Description", null, 3, null);
+        CartContext context = new CartContext(cart, Map.of(1L, product));
+
+        // When / Then
+        assertDoesNotThrow(() -> cartValidator.validateCartProductsStock(context));
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Test getProductMap - empty cart does not call the catalog")
+    void testGetProductMapEmptyCart() {
+        // Given
+        Cart cart = Cart.builder()
+                .cartProducts(Collections.emptyList())
+                .build();
+
+        // When
+        Map<Long, Product> productMap = cartValidator.getProductMap(cart);
+
+        // Then
+        assertTrue(productMap.isEmpty());
+        verifyNoInteractions(productService);
+    }
+
     @Test
     @DisplayName("Test getProductMap")
     void testGetProductMap() {
@@ -220,4 +200,43 @@ class CartValidatorTest {
         assertEquals(product1, productMap.get(1L));
         assertEquals(product2, productMap.get(2L));
     }
+
+    @Test
+    @DisplayName("Test validateProductsStock - one catalog call covers every line")
+    void testValidateProductsStockSingleLookup() {
+        CartProduct first = CartProduct.builder().productId(1L).quantity(2).build();
+        CartProduct second = CartProduct.builder().productId(2L).quantity(1).build();
+        CartProduct existing = CartProduct.builder().productId(1L).quantity(3).build();
+        when(productService.findProductsByIds(List.of(1L, 2L))).thenReturn(List.of(
+                new Product(1L, "Product 1", "Description", null, 5, null),
+                new Product(2L, "Product 2", "Description", null, 1, null)));
+
+        assertDoesNotThrow(() -> cartValidator.validateProductsStock(List.of(first, second), Map.of(1L, existing)));
+        verify(productService, times(1)).findProductsByIds(anyList());
+        verify(productService, never()).getProductById(anyLong());
+        verify(stockSnapshotCache).remember(anyList());
+    }
+
+    @Test
+    @DisplayName("Test validateProductsStock - quantity already in the cart counts against stock")
+    void testValidateProductsStockNotEnoughStock() {
+        CartProduct line = CartProduct.builder().productId(1L).quantity(3).build();
+        CartProduct existing = CartProduct.builder().productId(1L).quantity(3).build();
+        when(productService.findProductsByIds(List.of(1L))).thenReturn(List.of(
+                new Product(1L, "Product 1", "Description", null, 5, null)));
+
+        CartProductInvalidQuantityException exception = assertThrows(CartProductInvalidQuantityException.class,
+                () -> cartValidator.validateProductsStock(List.of(line), Map.of(1L, existing)));
+        assertTrue(exception.getMessage().contains("6"));
+    }
+
+    @Test
+    @DisplayName("Test validateProductsStock - unknown product")
+    void testValidateProductsStockUnknownProduct() {
+        CartProduct line = CartProduct.builder().productId(7L).quantity(1).build();
+        when(productService.findProductsByIds(List.of(7L))).thenReturn(List.of());
+
+        assertThrows(CartProductNotFoundException.class,
+                () -> cartValidator.validateProductsStock(List.of(line), Map.of()));
+    }
 }
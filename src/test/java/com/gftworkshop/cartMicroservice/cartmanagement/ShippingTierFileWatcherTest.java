@@ -0,0 +1,92 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.config.ShippingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShippingTierFileWatcher Unit Tests")
+class ShippingTierFileWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private ShippingTierRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = directory.resolve("shipping-tiers.yml");
+        write("""
+                cart:
+                  shipping:
+                    tiers:
+                      - cost: 7
+                """, Instant.parse("2026-01-01T00:00:00Z"));
+        registry = new ShippingTierRegistry(new ShippingProperties());
+    }
+
+    private void write(String yaml, Instant modified) throws IOException {
+        Files.writeString(file, yaml);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+    }
+
+    @Test
+    @DisplayName("When the watcher starts, then the tiers from the file replace the configured ones")
+    void testInitialLoad() {
+        new ShippingTierFileWatcher(registry, file);
+
+        assertEquals(new BigDecimal("7"), registry.costFor(50.0));
+    }
+
+    @Test
+    @DisplayName("When the file changes, then the new tiers are applied once")
+    void testReloadOnChange() throws IOException {
+        ShippingTierFileWatcher watcher = new ShippingTierFileWatcher(registry, file);
+        assertFalse(watcher.check());
+
+        write("""
+                cart:
+                  shipping:
+                    tiers:
+                      - cost: 9
+                    countries:
+                      34:
+                        - cost: 2
+                """, Instant.parse("2026-01-02T00:00:00Z"));
+
+        assertTrue(watcher.check());
+        assertFalse(watcher.check());
+        assertEquals(new BigDecimal("9"), registry.costFor(1L, 50.0));
+        assertEquals(new BigDecimal("2"), registry.costFor(34L, 50.0));
+    }
+
+    @Test
+    @DisplayName("When the changed file holds invalid tiers, then the previous tiers stay in place")
+    void testInvalidFileKeepsPreviousTiers() throws IOException {
+        ShippingTierFileWatcher watcher = new ShippingTierFileWatcher(registry, file);
+
+        write("""
+                cart:
+                  shipping:
+                    tiers:
+                      - up-to: 10
+                        cost: 1
+                      - up-to: 1
+                        cost: 10
+                """, Instant.parse("2026-01-02T00:00:00Z"));
+
+        assertFalse(watcher.check());
+        assertEquals(new BigDecimal("7"), registry.costFor(50.0));
+    }
+}
@@ -0,0 +1,57 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.config.ShippingProperties;
+import com.gftworkshop.cartMicroservice.config.ShippingProperties.Tier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShippingTierRegistry Unit Tests")
+class ShippingTierRegistryTest {
+
+    private ShippingTierRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ShippingProperties properties = new ShippingProperties();
+        properties.setCountries(Map.of(34L, List.of(new Tier(null, new BigDecimal("3")))));
+        registry = new ShippingTierRegistry(properties);
+    }
+
+    @Test
+    @DisplayName("When a country has its own tiers, then they are used and other countries fall back to the defaults")
+    void testCountryTiers() {
+        assertEquals(new BigDecimal("3"), registry.costFor(34L, 50.0));
+        assertEquals(new BigDecimal("50"), registry.costFor(1L, 50.0));
+        assertEquals(new BigDecimal("50"), registry.costFor(null, 50.0));
+        assertEquals(new BigDecimal("5"), registry.costFor(1.0));
+    }
+
+    @Test
+    @DisplayName("When the tiers are reloaded, then new lookups see the new tables")
+    void testReload() {
+        ShippingProperties reloaded = new ShippingProperties();
+        reloaded.setTiers(List.of(new Tier(null, BigDecimal.ONE)));
+
+        registry.reload(reloaded);
+
+        assertEquals(BigDecimal.ONE, registry.costFor(34L, 50.0));
+    }
+
+    @Test
+    @DisplayName("When the reloaded tiers are invalid, then the previous tables stay in place")
+    void testInvalidReloadKeepsPreviousTables() {
+        ShippingProperties invalid = new ShippingProperties();
+        invalid.setTiers(List.of(new Tier(10.0, BigDecimal.ONE), new Tier(1.0, BigDecimal.TEN)));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.reload(invalid));
+
+        assertEquals(new BigDecimal("3"), registry.costFor(34L, 50.0));
+    }
+}
@@ -0,0 +1,51 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.config.ShippingProperties.Tier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShippingTierTable Unit Tests")
+class ShippingTierTableTest {
+
+    private final ShippingTierTable table = ShippingTierTable.of(List.of(
+            new Tier(5.0, new BigDecimal("5")),
+            new Tier(10.0, new BigDecimal("10")),
+            new Tier(20.0, new BigDecimal("20")),
+            new Tier(null, new BigDecimal("50"))
+    ));
+
+    @ParameterizedTest
+    @CsvSource({"0,5", "5,5", "5.01,10", "10,10", "15,20", "20,20", "20.5,50", "100000,50"})
+    @DisplayName("When looking up a weight, then the first tier whose bound covers it applies")
+    void testCostForWeight(double weight, String expectedCost) {
+        assertEquals(new BigDecimal(expectedCost), table.costFor(weight));
+    }
+
+    @Test
+    @DisplayName("When the last tier is bounded and the weight exceeds it, then the weight is rejected")
+    void testWeightAboveLastBound() {
+        ShippingTierTable bounded = ShippingTierTable.of(List.of(new Tier(5.0, BigDecimal.ONE)));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> bounded.costFor(6.0));
+        assertEquals("Invalid weight: 6.0", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> table.costFor(Double.NaN));
+    }
+
+    @Test
+    @DisplayName("When tiers are not strictly increasing or have no cost, then the table is rejected")
+    void testInvalidTiers() {
+        assertThrows(IllegalArgumentException.class, () -> ShippingTierTable.of(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> ShippingTierTable.of(List.of(
+                new Tier(10.0, BigDecimal.ONE), new Tier(5.0, BigDecimal.TEN))));
+        assertThrows(IllegalArgumentException.class, () -> ShippingTierTable.of(List.of(
+                new Tier(null, BigDecimal.ONE), new Tier(null, BigDecimal.TEN))));
+        assertThrows(IllegalArgumentException.class, () -> ShippingTierTable.of(List.of(new Tier(5.0, null))));
+    }
+}
@@ -0,0 +1,96 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.config.StockCacheProperties;
+import com.gftworkshop.cartMicroservice.exceptions.CartProductNotFoundException;
+import com.gftworkshop.cartMicroservice.services.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("StockSnapshotCache Unit Tests")
+class StockSnapshotCacheTest {
+
+    private ProductService productService;
+    private StockCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        properties = new StockCacheProperties();
+        properties.setTtl(Duration.ofMinutes(1));
+        when(productService.findProductsByIds(List.of(1L))).thenReturn(List.of(new Product(1L, "Product", "Description", null, 5, null)));
+    }
+
+    private StockSnapshotCache cache() {
+        return new StockSnapshotCache(productService, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Test getAvailableStock - stock is looked up by id once and then served from the snapshot")
+    void testGetAvailableStockIsCached() {
+        StockSnapshotCache cache = cache();
+
+        assertEquals(5, cache.getAvailableStock(1L));
+        assertEquals(5, cache.getAvailableStock(1L));
+
+        verify(productService, times(1)).findProductsByIds(List.of(1L));
+        verify(productService, never()).getProductById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Test getAvailableStock - a product with a zero staleness bound is always looked up")
+    void testPerProductStalenessBound() {
+        properties.getProducts().put(1L, Duration.ZERO);
+        StockSnapshotCache cache = cache();
+
+        cache.getAvailableStock(1L);
+        cache.getAvailableStock(1L);
+
+        verify(productService, times(2)).findProductsByIds(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Test getAvailableStock - a disabled cache always looks stock up")
+    void testDisabledCache() {
+        properties.setEnabled(false);
+        StockSnapshotCache cache = cache();
+
+        cache.getAvailableStock(1L);
+        cache.getAvailableStock(1L);
+
+        verify(productService, times(2)).findProductsByIds(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Test getAvailableStock - unknown products are reported and not cached")
+    void testUnknownProduct() {
+        when(productService.findProductsByIds(List.of(9L))).thenReturn(List.of());
+        StockSnapshotCache cache = cache();
+
+        assertThrows(CartProductNotFoundException.class, () -> cache.getAvailableStock(9L));
+        assertThrows(CartProductNotFoundException.class, () -> cache.getAvailableStock(9L));
+
+        verify(productService, times(2)).findProductsByIds(List.of(9L));
+    }
+
+    @Test
+    @DisplayName("Test remember - stock seen by batch lookups seeds the snapshot")
+    void testRememberSeedsSnapshot() {
+        StockSnapshotCache cache = cache();
+
+        cache.remember(List.of(new Product(2L, "Product 2", "Description", null, 8, null)));
+
+        assertEquals(8, cache.getAvailableStock(2L));
+        verify(productService, never()).findProductsByIds(anyList());
+    }
+}
@@ -0,0 +1,50 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.api.dto.Country;
+import com.gftworkshop.cartMicroservice.api.dto.User;
+import com.gftworkshop.cartMicroservice.services.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("UserCountryCache Unit Tests")
+class UserCountryCacheTest {
+
+    private UserService userService;
+    private UserCountryCache userCountryCache;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        userCountryCache = new UserCountryCache(userService, new SimpleMeterRegistry(),
+                Duration.ofMinutes(10), 100, Duration.ofHours(1), 10);
+        when(userService.getUserById(1L)).thenReturn(User.builder().id(1L).country(new Country(34L, 21.0)).build());
+    }
+
+    @Test
+    @DisplayName("Test getCountry - second lookup is served from the cache")
+    void testGetCountryCachesUserAndTax() {
+        Country first = userCountryCache.getCountry(1L);
+        Country second = userCountryCache.getCountry(1L);
+
+        assertEquals(new Country(34L, 21.0), first);
+        assertEquals(first, second);
+        assertTrue(userCountryCache.getCachedCountry(1L).isPresent());
+        verify(userService, times(1)).getUserById(1L);
+    }
+
+    @Test
+    @DisplayName("Test getCountry - users without a country are not cached")
+    void testGetCountryWithoutCountry() {
+        when(userService.getUserById(2L)).thenReturn(User.builder().id(2L).build());
+
+        assertNull(userCountryCache.getCountry(2L));
+        assertTrue(userCountryCache.getCachedCountry(2L).isEmpty());
+    }
+}
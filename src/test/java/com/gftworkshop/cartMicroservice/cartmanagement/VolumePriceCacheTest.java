@@ -0,0 +1,81 @@
+package com.gftworkshop.cartMicroservice.cartmanagement;
+
+import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.services.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("VolumePriceCache Unit Tests")
+class VolumePriceCacheTest {
+
+    private ProductService productService;
+    private VolumePriceCache volumePriceCache;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        volumePriceCache = new VolumePriceCache(productService, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    @DisplayName("Test getDiscountedProducts - second lookup is served from the cache")
+    void testGetDiscountedProductsCachesPrices() {
+        CartProductDto line = CartProductDto.builder().productId(1L).quantity(2).build();
+        Product product = Product.builder().id(1L).price(new BigDecimal("18")).weight(1.0).build();
+        when(productService.getProductByIdWithDiscountedPrice(anyList())).thenReturn(List.of(product));
+
+        List<Product> first = volumePriceCache.getDiscountedProducts(List.of(line));
+        List<Product> second = volumePriceCache.getDiscountedProducts(List.of(line));
+
+        assertEquals(List.of(product), first);
+        assertEquals(List.of(product), second);
+        verify(productService, times(1)).getProductByIdWithDiscountedPrice(anyList());
+        assertEquals(1L, volumePriceCache.stats().hitCount());
+        assertEquals(1L, volumePriceCache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("Test getDiscountedProducts - only misses are sent and results keep cart order")
+    void testGetDiscountedProductsOnlyFetchesMisses() {
+        CartProductDto first = CartProductDto.builder().productId(1L).quantity(1).build();
+        CartProductDto second = CartProductDto.builder().productId(2L).quantity(3).build();
+        Product product1 = Product.builder().id(1L).price(new BigDecimal("10")).build();
+        Product product2 = Product.builder().id(2L).price(new BigDecimal("27")).build();
+
+        when(productService.getProductByIdWithDiscountedPrice(List.of(first))).thenReturn(List.of(product1));
+        volumePriceCache.getDiscountedProducts(List.of(first));
+
+        when(productService.getProductByIdWithDiscountedPrice(List.of(second))).thenReturn(List.of(product2));
+        List<Product> products = volumePriceCache.getDiscountedProducts(List.of(second, first));
+
+        assertEquals(List.of(product2, product1), products);
+        verify(productService, times(1)).getProductByIdWithDiscountedPrice(List.of(second));
+    }
+
+    @Test
+    @DisplayName("Test getDiscountedProducts - a different quantity is a different price")
+    void testGetDiscountedProductsKeyedOnQuantity() {
+        CartProductDto one = CartProductDto.builder().productId(1L).quantity(1).build();
+        CartProductDto ten = CartProductDto.builder().productId(1L).quantity(10).build();
+        when(productService.getProductByIdWithDiscountedPrice(anyList()))
+                .thenReturn(List.of(Product.builder().id(1L).price(BigDecimal.TEN).build()))
+                .thenReturn(List.of(Product.builder().id(1L).price(new BigDecimal("80")).build()));
+
+        volumePriceCache.getDiscountedProducts(List.of(one));
+        List<Product> products = volumePriceCache.getDiscountedProducts(List.of(ten));
+
+        assertEquals(new BigDecimal("80"), products.get(0).getPrice());
+        verify(productService, times(2)).getProductByIdWithDiscountedPrice(anyList());
+    }
+}
@@ -0,0 +1,77 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("AppConfig Unit Tests")
+class AppConfigTest {
+
+    private MockWebServer mockWebServer;
+    private SimpleMeterRegistry meterRegistry;
+    private HttpClientProperties.Client client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        meterRegistry = new SimpleMeterRegistry();
+        client = new HttpClientProperties.Client();
+        client.setMaxConnectionsPerRoute(5);
+        client.setMaxConnectionsTotal(10);
+        client.setReadTimeout(Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    @DisplayName("When the pooled client is built, then pool metrics are exported per client")
+    void testPoolMetricsAreRegistered() {
+        AppConfig.requestFactory("catalog", client, meterRegistry);
+
+        assertEquals(10.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "catalog").gauge().value());
+        assertEquals(5.0, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default")
+                .tag("httpclient", "catalog").gauge().value());
+    }
+
+    @Test
+    @DisplayName("When the downstream answers within the read timeout, then the body is returned")
+    void testResponseWithinTimeout() {
+        ClientHttpRequestFactory requestFactory = AppConfig.requestFactory("catalog", client, meterRegistry);
+        RestClient restClient = RestClient.builder().requestFactory(requestFactory).build();
+        mockWebServer.enqueue(new MockResponse().setBody("ok"));
+
+        String body = restClient.get().uri(mockWebServer.url("/").toString()).retrieve().body(String.class);
+
+        assertEquals("ok", body);
+    }
+
+    @Test
+    @DisplayName("When the downstream is slower than the read timeout, then the call fails fast")
+    void testReadTimeout() {
+        ClientHttpRequestFactory requestFactory = AppConfig.requestFactory("catalog", client, meterRegistry);
+        RestClient restClient = RestClient.builder().requestFactory(requestFactory).build();
+        mockWebServer.enqueue(new MockResponse().setBody("late").setHeadersDelay(2, TimeUnit.SECONDS));
+
+        assertThrows(ResourceAccessException.class,
+                () -> restClient.get().uri(mockWebServer.url("/").toString()).retrieve().body(String.class));
+    }
+}
@@ -0,0 +1,55 @@
+package com.gftworkshop.cartMicroservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AsyncConfig Unit Tests")
+class AsyncConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(AsyncConfig.class, VirtualThreadPinningMonitor.class)
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    @DisplayName("When virtual threads are not enabled, then remote calls run on the bounded platform pool")
+    void testPlatformThreadsByDefault() {
+        contextRunner.run(context -> {
+            assertThat(context.getBean("remoteCallExecutor")).isInstanceOf(ThreadPoolTaskExecutor.class);
+            assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class);
+        });
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @DisplayName("When virtual threads are enabled on Java 21, then remote calls run on virtual threads and pinning is monitored")
+    void testVirtualThreadsWhenEnabled() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            Executor executor = context.getBean("remoteCallExecutor", Executor.class);
+            assertThat(executor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+
+            Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get(5, TimeUnit.SECONDS);
+            assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+            assertThat(context).hasSingleBean(VirtualThreadPinningMonitor.class);
+            assertThat(context.getBean(VirtualThreadPinningMonitor.class).isRunning()).isTrue();
+        });
+    }
+}
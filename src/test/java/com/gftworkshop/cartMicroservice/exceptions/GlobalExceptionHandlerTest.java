@@ -10,6 +10,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -153,4 +154,25 @@ class GlobalExceptionHandlerTest {
         assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
         assertEquals("User not found", responseEntity.getBody().getMessage());
     }
+
+    @Test
+    @DisplayName("When handling CartVersionConflictException, then return PreconditionFailed and ask for a retry")
+    void testHandleCartVersionConflictException() {
+        CartVersionConflictException exception = new CartVersionConflictException("Cart with ID 1 is at version 4, expected 3");
+        ResponseEntity<ErrorResponse> responseEntity = globalExceptionHandler.handleCartVersionConflictException(exception, webRequest);
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, responseEntity.getStatusCode());
+        assertEquals(412, responseEntity.getBody().getCode());
+        assertEquals("Cart with ID 1 is at version 4, expected 3; fetch the cart again and retry", responseEntity.getBody().getMessage());
+    }
+
+    @Test
+    @DisplayName("When handling ObjectOptimisticLockingFailureException, then return Conflict")
+    void testHandleOptimisticLockingFailure() {
+        ObjectOptimisticLockingFailureException exception = new ObjectOptimisticLockingFailureException("CartProduct", 1L);
+        ResponseEntity<ErrorResponse> responseEntity = globalExceptionHandler.handleOptimisticLockingFailure(exception, webRequest);
+
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+        assertEquals(409, responseEntity.getBody().getCode());
+    }
 }
@@ -0,0 +1,165 @@
+package com.gftworkshop.cartMicroservice.repositories;
+
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(CartProductBatchRepository.class)
+@ActiveProfiles("dev")
+@DisplayName("CartProductBatchRepository tests")
+class CartProductBatchRepositoryTest {
+
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 10;
+
+    @Autowired
+    private CartProductBatchRepository cartProductBatchRepository;
+
+    @Autowired
+    private CartProductRepository cartProductRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("When updating quantities in one batch, then each line gets its new quantity")
+    void testUpdateQuantities() {
+        List<CartProduct> existing = cartProductRepository.findByCartIdAndProductIdIn(1L, List.of(1L, 2L));
+
+        cartProductBatchRepository.updateQuantities(Map.of(
+                existing.get(0).getId(), 7,
+                existing.get(1).getId(), 8));
+        entityManager.clear();
+
+        assertEquals(7, cartProductRepository.findByCartIdAndProductId(1L, existing.get(0).getProductId()).orElseThrow().getQuantity());
+        assertEquals(8, cartProductRepository.findByCartIdAndProductId(1L, existing.get(1).getProductId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("When refreshing catalog data in one batch, then only the given lines change")
+    void testUpdateCatalogInfo() {
+        CartProduct line = cartProductRepository.findByCartIdAndProductId(1L, 1L).orElseThrow();
+        line.setPrice(new BigDecimal("60.00"));
+        line.setProductName("Winter Jacket");
+        entityManager.detach(line);
+
+        cartProductBatchRepository.updateCatalogInfo(List.of(line));
+        entityManager.clear();
+
+        CartProduct stored = cartProductRepository.findByCartIdAndProductId(1L, 1L).orElseThrow();
+        assertEquals(new BigDecimal("60.00"), stored.getPrice());
+        assertEquals("Winter Jacket", stored.getProductName());
+        assertEquals("Agent word occur number chair.",
+                cartProductRepository.findByCartIdAndProductId(1L, 2L).orElseThrow().getProductDescription());
+    }
+
+    @Test
+    @DisplayName("When upserting a product already in the cart, then its quantity is incremented in place")
+    void testUpsertQuantityIncrementsExistingLine() {
+        CartProduct line = CartProduct.builder().productId(2L).productName("Building Blocks").quantity(3)
+                .price(new BigDecimal("7.89")).build();
+
+        int quantity = cartProductBatchRepository.upsertQuantity(1L, line);
+
+        assertEquals(5, quantity);
+        assertEquals(1, cartProductRepository.findByCartIdAndProductIdIn(1L, List.of(2L)).size());
+    }
+
+    @Test
+    @DisplayName("When upserting a product not yet in the cart, then a new line is inserted")
+    void testUpsertQuantityInsertsNewLine() {
+        CartProduct line = CartProduct.builder().productId(50L).productName("Kite").productDescription("Red")
+                .quantity(2).price(new BigDecimal("12.00")).build();
+
+        int quantity = cartProductBatchRepository.upsertQuantity(3L, line);
+
+        CartProduct stored = cartProductRepository.findByCartIdAndProductId(3L, 50L).orElseThrow();
+        assertEquals(2, quantity);
+        assertEquals("Kite", stored.getProductName());
+        assertTrue(stored.getId() > 4);
+    }
+
+    @Test
+    @DisplayName("When upserting a product already in the cart, then no line id is allocated")
+    void testUpsertQuantityAllocatesIdsOnlyForInserts() {
+        CartProduct first = CartProduct.builder().productId(51L).productName("Kite").quantity(1)
+                .price(new BigDecimal("12.00")).build();
+        CartProduct second = CartProduct.builder().productId(52L).productName("Yo-yo").quantity(1)
+                .price(new BigDecimal("3.00")).build();
+
+        cartProductBatchRepository.upsertQuantity(3L, first);
+        for (int i = 0; i < 5; i++) {
+            cartProductBatchRepository.upsertQuantity(3L, CartProduct.builder().productId(51L).productName("Kite")
+                    .quantity(1).price(new BigDecimal("12.00")).build());
+        }
+        cartProductBatchRepository.upsertQuantity(3L, second);
+
+        long firstId = cartProductRepository.findByCartIdAndProductId(3L, 51L).orElseThrow().getId();
+        long secondId = cartProductRepository.findByCartIdAndProductId(3L, 52L).orElseThrow().getId();
+        assertEquals(firstId + CartProductBatchRepository.LINE_ID_BLOCK, secondId);
+    }
+
+    @Test
+    @DisplayName("When a line is added twice outside the upsert, then the unique constraint rejects it")
+    void testDuplicateLineIsRejected() {
+        CartProduct duplicate = CartProduct.builder().cart(entityManager.getReference(Cart.class, 1L))
+                .productId(1L).productName("Jacket").productDescription("Duplicate line")
+                .quantity(1).price(new BigDecimal("58.79")).build();
+
+        assertThrows(DataIntegrityViolationException.class, () -> cartProductRepository.saveAndFlush(duplicate));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("When the same product is added concurrently, then no increment is lost")
+    void testConcurrentUpsertsKeepEveryIncrement() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS * ADDS_PER_THREAD; i++) {
+                results.add(executor.submit(() -> transactionTemplate.execute(status -> cartProductBatchRepository.upsertQuantity(2L,
+                        CartProduct.builder().productId(3L).productName("Swimming Goggles").quantity(1)
+                                .price(new BigDecimal("30.53")).build()))));
+            }
+            for (Future<Integer> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(1 + THREADS * ADDS_PER_THREAD,
+                    cartProductRepository.findByCartIdAndProductId(2L, 3L).orElseThrow().getQuantity());
+        } finally {
+            executor.shutdownNow();
+            transactionTemplate.executeWithoutResult(status -> cartProductRepository.updateQuantity(
+                    cartProductRepository.findByCartIdAndProductId(2L, 3L).orElseThrow().getId(), 1));
+        }
+    }
+}
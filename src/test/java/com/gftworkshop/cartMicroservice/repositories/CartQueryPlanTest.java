@@ -0,0 +1,142 @@
+package com.gftworkshop.cartMicroservice.repositories;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.gftworkshop.cartMicroservice.repositories.CartQueryPlanTest$RecordingStatementInspector")
+@ActiveProfiles("dev")
+@DisplayName("Cart query plan regression tests")
+class CartQueryPlanTest {
+
+    private static final String TABLE_SCAN = ".tableScan";
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartProductRepository cartProductRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("findByUserId uses the user_id index")
+    void testFindByUserIdUsesIndex() {
+        cartRepository.findByUserId(1L);
+
+        assertPlansUse("IDX_CART_USER_ID");
+    }
+
+    @Test
+    @DisplayName("identifyAbandonedCarts uses the updated_at index")
+    void testIdentifyAbandonedCartsUsesIndex() {
+        cartRepository.identifyAbandonedCarts(LocalDate.now().minusDays(1));
+
+        assertPlansUse("IDX_CART_UPDATED_AT");
+    }
+
+    @Test
+    @DisplayName("findAbandonedCartsWithProducts uses the updated_at index and joins lines by cart")
+    void testFindAbandonedCartsWithProductsUsesIndex() {
+        cartRepository.findAbandonedCartsWithProducts(LocalDate.now().minusDays(1));
+
+        assertPlansUse("IDX_CART_UPDATED_AT");
+    }
+
+    @Test
+    @DisplayName("findByCartIdAndProductId uses the unique cart line index")
+    void testFindByCartIdAndProductIdUsesIndex() {
+        cartProductRepository.findByCartIdAndProductId(1L, 1L);
+
+        assertPlansUse("UK_CART_PRODUCTS_CART_PRODUCT");
+    }
+
+    @Test
+    @DisplayName("findByCartIdAndProductIdIn uses the unique cart line index")
+    void testFindByCartIdAndProductIdInUsesIndex() {
+        cartProductRepository.findByCartIdAndProductIdIn(1L, List.of(1L, 2L));
+
+        assertPlansUse("UK_CART_PRODUCTS_CART_PRODUCT");
+    }
+
+    @Test
+    @DisplayName("deleteAllByCartId and the version bump never scan a whole table")
+    void testCartWritesUseIndexes() {
+        cartRepository.bumpVersion(1L, null, LocalDate.now());
+        cartProductRepository.deleteAllByCartId(1L);
+        entityManager.flush();
+
+        assertPlansUse(null);
+    }
+
+    private void assertPlansUse(String expectedIndex) {
+        List<String> statements = RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> !sql.toLowerCase(Locale.ROOT).contains("next value for"))
+                .toList();
+        assertFalse(statements.isEmpty(), "No statements were captured");
+
+        StringBuilder plans = new StringBuilder();
+        statements.forEach(sql -> {
+            String plan = explain(sql);
+            assertFalse(plan.contains(TABLE_SCAN), () -> "Full scan in plan:\n" + plan);
+            plans.append(plan).append('\n');
+        });
+        if (expectedIndex != null) {
+            assertTrue(plans.toString().toUpperCase(Locale.ROOT).contains(expectedIndex),
+                    () -> expectedIndex + " not used by:\n" + plans);
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.gftworkshop.cartMicroservice.repositories;
+
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("dev")
+@DisplayName("CartRepository batch write tests")
+class CartRepositoryBatchWriteTest {
+
+    private static final int LINES = 200;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private Cart largeCart() {
+        Cart cart = Cart.builder()
+                .userId(5000L)
+                .updatedAt(LocalDate.now())
+                .cartProducts(new ArrayList<>())
+                .build();
+        for (long productId = 1; productId <= LINES; productId++) {
+            cart.getCartProducts().add(CartProduct.builder()
+                    .cart(cart)
+                    .productId(productId)
+                    .productName("Product " + productId)
+                    .productDescription("Description " + productId)
+                    .quantity(1)
+                    .price(BigDecimal.ONE)
+                    .build());
+        }
+        return cart;
+    }
+
+    @Test
+    @DisplayName("When saving a large cart, then its lines are inserted in a few JDBC batches")
+    void testLargeCartIsInsertedInBatches() {
+        cartRepository.save(largeCart());
+        entityManager.flush();
+
+        assertEquals(LINES + 1, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "Expected a handful of statements but got " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("When saving a large cart, then new ids start after the seeded rows and do not repeat")
+    void testSequenceIdsDoNotCollideWithSeedData() {
+        Cart cart = cartRepository.save(largeCart());
+        entityManager.flush();
+
+        Set<Long> ids = cart.getCartProducts().stream().map(CartProduct::getId).collect(Collectors.toSet());
+
+        assertTrue(cart.getId() > 3);
+        assertEquals(LINES, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id > 4));
+    }
+
+    @Test
+    @DisplayName("When updating every line of a large cart, then the updates are batched too")
+    void testLargeCartIsUpdatedInBatches() {
+        Long cartId = cartRepository.save(largeCart()).getId();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<CartProduct> lines = cartRepository.findById(cartId).orElseThrow().getCartProducts();
+        lines.forEach(line -> line.setQuantity(2));
+        entityManager.flush();
+
+        assertEquals(LINES, statistics.getEntityUpdateCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "Expected a handful of statements but got " + statistics.getPrepareStatementCount());
+    }
+}
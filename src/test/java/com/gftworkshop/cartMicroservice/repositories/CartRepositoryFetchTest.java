@@ -0,0 +1,110 @@
+package com.gftworkshop.cartMicroservice.repositories;
+
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("dev")
+@DisplayName("CartRepository fetch plan tests")
+class CartRepositoryFetchTest {
+
+    private static final int CARTS = 20;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < CARTS; i++) {
+            Cart cart = Cart.builder()
+                    .userId(1000L + i)
+                    .updatedAt(LocalDate.now().minusDays(10))
+                    .cartProducts(new ArrayList<>())
+                    .build();
+            for (long productId = 1; productId <= 3; productId++) {
+                cart.getCartProducts().add(CartProduct.builder()
+                        .cart(cart)
+                        .productId(productId)
+                        .productName("Product " + productId)
+                        .productDescription("Description " + productId)
+                        .quantity(1)
+                        .price(BigDecimal.TEN)
+                        .build());
+            }
+            entityManager.persist(cart);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("When loading all carts with their products, then a single statement is issued")
+    void testFindAllLoadsProductsInOneStatement() {
+        List<Cart> carts = cartRepository.findAll();
+
+        int lines = carts.stream().mapToInt(cart -> cart.getCartProducts().size()).sum();
+
+        assertTrue(carts.size() >= CARTS);
+        assertTrue(lines >= CARTS * 3);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("When scanning abandoned carts, then only ids and dates are read in one statement")
+    void testIdentifyAbandonedCartsReadsNoEntities() {
+        List<AbandonedCart> carts = cartRepository.identifyAbandonedCarts(LocalDate.now().minusDays(5));
+
+        assertTrue(carts.size() >= CARTS);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("When loading abandoned carts with their products, then the query count does not grow with the carts found")
+    void testFindAbandonedCartsWithProductsLoadsProductsInOneStatement() {
+        List<Cart> carts = cartRepository.findAbandonedCartsWithProducts(LocalDate.now().minusDays(5));
+
+        carts.forEach(cart -> cart.getCartProducts().size());
+
+        assertTrue(carts.size() >= CARTS);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("When loading a cart by id, then its products come in the same statement")
+    void testFindByIdLoadsProductsInOneStatement() {
+        Long cartId = cartRepository.findByUserId(1000L).orElseThrow().getId();
+        entityManager.clear();
+        statistics.clear();
+
+        Cart cart = cartRepository.findById(cartId).orElseThrow();
+
+        assertEquals(3, cart.getCartProducts().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
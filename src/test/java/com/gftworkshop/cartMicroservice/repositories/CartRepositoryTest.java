@@ -26,11 +26,11 @@ public class CartRepositoryTest {
     public void testIdentifyAbandonedCarts() {
         LocalDate thresholdDate = LocalDate.now();
 
-        List<Cart> expectedCarts = List.of(new Cart(), new Cart());
+        List<AbandonedCart> expectedCarts = List.of(new AbandonedCart(1L, thresholdDate), new AbandonedCart(2L, thresholdDate));
 
         when(cartRepository.identifyAbandonedCarts(thresholdDate)).thenReturn(expectedCarts);
 
-        List<Cart> actualCarts = cartRepository.identifyAbandonedCarts(thresholdDate);
+        List<AbandonedCart> actualCarts = cartRepository.identifyAbandonedCarts(thresholdDate);
 
         assertEquals(expectedCarts, actualCarts);
         verify(cartRepository, times(1)).identifyAbandonedCarts(thresholdDate);
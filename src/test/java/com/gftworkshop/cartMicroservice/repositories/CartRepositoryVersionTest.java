@@ -0,0 +1,106 @@
+package com.gftworkshop.cartMicroservice.repositories;
+
+import com.gftworkshop.cartMicroservice.exceptions.CartNotFoundException;
+import com.gftworkshop.cartMicroservice.exceptions.CartVersionConflictException;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@ActiveProfiles("dev")
+@DisplayName("CartRepository versioning tests")
+class CartRepositoryVersionTest {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartProductRepository cartProductRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        cart = Cart.builder()
+                .userId(5000L)
+                .updatedAt(LocalDate.now().minusDays(3))
+                .cartProducts(new ArrayList<>())
+                .build();
+        cart.getCartProducts().add(CartProduct.builder()
+                .cart(cart)
+                .productId(1L)
+                .productName("Product 1")
+                .productDescription("Description 1")
+                .quantity(1)
+                .price(BigDecimal.TEN)
+                .build());
+        entityManager.persist(cart);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("New carts start at version 0")
+    void testNewCartStartsAtVersionZero() {
+        assertEquals(0L, cartRepository.findVersionById(cart.getId()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("A matching expected version is bumped, touches the cart and returns the new version")
+    void testIncrementVersionWithMatchingVersion() {
+        assertEquals(1L, cartRepository.incrementVersion(cart.getId(), 0L));
+        assertEquals(2L, cartRepository.incrementVersion(cart.getId(), null));
+        entityManager.clear();
+
+        Cart stored = cartRepository.findById(cart.getId()).orElseThrow();
+        assertEquals(2L, stored.getVersion());
+        assertEquals(LocalDate.now(), stored.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("A stale expected version is reported as a conflict and nothing changes")
+    void testIncrementVersionWithStaleVersion() {
+        cartRepository.incrementVersion(cart.getId(), 0L);
+
+        assertThrows(CartVersionConflictException.class, () -> cartRepository.incrementVersion(cart.getId(), 0L));
+        assertEquals(1L, cartRepository.findVersionById(cart.getId()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("A missing cart is reported as not found")
+    void testIncrementVersionOnMissingCart() {
+        assertThrows(CartNotFoundException.class, () -> cartRepository.incrementVersion(-1L, null));
+    }
+
+    @Test
+    @DisplayName("Writing a cart line loaded before a concurrent change fails instead of overwriting it")
+    void testStaleCartProductWriteIsRejected() {
+        CartProduct stale = cartProductRepository.findAll().get(0);
+        entityManager.detach(stale);
+        cartProductRepository.updateQuantity(stale.getId(), 4);
+        entityManager.clear();
+
+        stale.setQuantity(9);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            cartProductRepository.saveAndFlush(stale);
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.config.ResilienceConfig;
+import com.gftworkshop.cartMicroservice.config.ResilienceProperties;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DownstreamGuard Unit Tests")
+class DownstreamGuardTest {
+
+    private ResilienceProperties.Downstream downstream;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        downstream = new ResilienceProperties.Downstream();
+        downstream.setSlidingWindowSize(4);
+        downstream.setMinimumNumberOfCalls(4);
+        downstream.setFailureRateThreshold(50);
+        downstream.setWaitDurationInOpenState(Duration.ofMinutes(1));
+        downstream.setMaxConcurrentCalls(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private DownstreamGuard guard() {
+        return ResilienceConfig.guard("CATALOG", "catalog", downstream,
+                CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("When server errors exceed the failure rate, then the circuit opens and calls fail fast")
+    void testCircuitOpensOnServerErrors() {
+        DownstreamGuard guard = guard();
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ExternalMicroserviceException.class, () -> guard.call("getProductById", () -> {
+                calls.incrementAndGet();
+                throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: 503", 503);
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+        ExternalMicroserviceException exception = assertThrows(ExternalMicroserviceException.class,
+                () -> guard.call("getProductById", calls::incrementAndGet));
+        assertTrue(exception.getMessage().contains("circuit breaker is open"));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    @DisplayName("When the downstream answers with client errors, then the circuit stays closed")
+    void testClientErrorsDoNotOpenCircuit() {
+        DownstreamGuard guard = guard();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ExternalMicroserviceException.class, () -> guard.call("getProductById", () -> {
+                throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: 404", 404);
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    @DisplayName("When the bulkhead is full, then extra calls are rejected immediately")
+    void testBulkheadRejectsExtraCalls() throws InterruptedException {
+        DownstreamGuard guard = guard();
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread slowCall = new Thread(() -> guard.call("getProductById", () -> {
+            inFlight.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        }));
+        slowCall.start();
+        assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+
+        ExternalMicroserviceException exception = assertThrows(ExternalMicroserviceException.class,
+                () -> guard.call("getProductById", () -> "fast"));
+        assertTrue(exception.getMessage().contains("too many concurrent calls"));
+
+        release.countDown();
+        slowCall.join();
+        assertEquals("fast", guard.call("getProductById", () -> "fast"));
+    }
+
+    @Test
+    @DisplayName("When a reactive call runs against an open circuit, then it fails fast without subscribing")
+    void testReactiveCallFailsFastWhenOpen() {
+        DownstreamGuard guard = guard();
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(guard.callReactive("findProductsByIds", Mono.error(new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: 500", 500))))
+                    .expectError(ExternalMicroserviceException.class)
+                    .verify();
+        }
+
+        StepVerifier.create(guard.callReactive("findProductsByIds", Mono.fromCallable(subscriptions::incrementAndGet)))
+                .expectErrorMatches(error -> error.getMessage().contains("circuit breaker is open"))
+                .verify();
+        assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+        assertEquals(0, subscriptions.get());
+    }
+
+    @Test
+    @DisplayName("When a named call succeeds, then it is timed with a success outcome")
+    void testNamedCallIsTimed() {
+        DownstreamGuard guard = guard();
+
+        assertEquals("ok", guard.call("getProductById", () -> "ok"));
+
+        Timer timer = meterRegistry.get(DownstreamGuard.REMOTE_CALLS_METRIC)
+                .tags("service", "catalog", "operation", "getProductById", "outcome", "SUCCESS", "status", "200")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    @DisplayName("When a named call fails, then the timer carries the downstream status")
+    void testNamedCallFailureIsTaggedWithStatus() {
+        DownstreamGuard guard = guard();
+
+        assertThrows(ExternalMicroserviceException.class, () -> guard.call("findProductsByIds", () -> {
+            throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: 404", 404);
+        }));
+
+        assertEquals(1, meterRegistry.get(DownstreamGuard.REMOTE_CALLS_METRIC)
+                .tags("operation", "findProductsByIds", "outcome", "CLIENT_ERROR", "status", "404")
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("When the circuit is open, then rejected calls are timed as rejected")
+    void testRejectedCallsAreTagged() {
+        DownstreamGuard guard = guard();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ExternalMicroserviceException.class, () -> guard.call("getProductById", () -> {
+                throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: 503", 503);
+            }));
+        }
+
+        ExternalMicroserviceException exception = assertThrows(ExternalMicroserviceException.class,
+                () -> guard.call("getProductById", () -> "never"));
+
+        assertTrue(exception.getMessage().contains("circuit breaker is open"));
+        assertEquals(4, meterRegistry.get(DownstreamGuard.REMOTE_CALLS_METRIC)
+                .tags("outcome", "SERVER_ERROR", "status", "503").timer().count());
+        assertEquals(1, meterRegistry.get(DownstreamGuard.REMOTE_CALLS_METRIC)
+                .tags("outcome", "REJECTED", "status", "NONE").timer().count());
+    }
+
+    @Test
+    @DisplayName("When a named reactive call completes, then it is timed once")
+    void testNamedReactiveCallIsTimed() {
+        DownstreamGuard guard = guard();
+
+        StepVerifier.create(guard.callReactive("getUserById", Mono.just("user")))
+                .expectNext("user")
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get(DownstreamGuard.REMOTE_CALLS_METRIC)
+                .tags("operation", "getUserById", "outcome", "SUCCESS").timer().count());
+    }
+}
@@ -0,0 +1,160 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductLookupCoalescer Unit Tests")
+class ProductLookupCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<List<Long>> calls;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        calls = new CopyOnWriteArrayList<>();
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        return product;
+    }
+
+    private Function<List<Long>, List<Product>> catalog() {
+        return ids -> {
+            calls.add(ids);
+            return ids.stream().map(ProductLookupCoalescerTest::product).toList();
+        };
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @Test
+    @DisplayName("When the same product is requested while a lookup is in flight, then both callers share one call")
+    void testConcurrentLookupsShareOneCall() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(ids -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return catalog().apply(ids);
+        }, Duration.ofMillis(1), 100, meterRegistry);
+
+        CompletableFuture<Product> first = CompletableFuture.supplyAsync(() -> coalescer.getProduct(1L));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Product> second = CompletableFuture.supplyAsync(() -> coalescer.getProduct(1L));
+        while (counter(ProductLookupCoalescer.COALESCED_METRIC) == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(1L)), calls);
+        assertEquals(1, counter(ProductLookupCoalescer.COALESCED_METRIC));
+    }
+
+    @Test
+    @DisplayName("When different products are requested within the window, then they are fetched in one batch")
+    void testLookupsWithinWindowAreBatched() throws Exception {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(catalog(), Duration.ofMillis(500), 100, meterRegistry);
+
+        CompletableFuture<Product> first = CompletableFuture.supplyAsync(() -> coalescer.getProduct(1L));
+        Thread.sleep(50);
+        List<Product> second = coalescer.findProducts(List.of(2L, 3L));
+
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(List.of(2L, 3L), second.stream().map(Product::getId).toList());
+        assertEquals(List.of(List.of(1L, 2L, 3L)), calls);
+        assertEquals(1, counter(ProductLookupCoalescer.BATCHED_METRIC));
+    }
+
+    @Test
+    @DisplayName("When one caller requests more ids than the batch size, then they are still fetched in one call")
+    void testCallerIdsAreNeverSplit() {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(catalog(), Duration.ofMillis(1), 2, meterRegistry);
+
+        List<Product> products = coalescer.findProducts(List.of(1L, 2L, 3L, 2L, 4L, 5L));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), products.stream().map(Product::getId).toList());
+        assertEquals(List.of(List.of(1L, 2L, 3L, 4L, 5L)), calls);
+        assertEquals(1, counter(ProductLookupCoalescer.BATCHED_METRIC));
+    }
+
+    @Test
+    @DisplayName("When a waiting batch fills up, then it is fetched without waiting for the window")
+    void testFullBatchIsFetchedImmediately() throws Exception {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(catalog(), Duration.ofSeconds(30), 2, meterRegistry);
+
+        CompletableFuture<Product> first = CompletableFuture.supplyAsync(() -> coalescer.getProduct(1L));
+        Thread.sleep(50);
+        CompletableFuture<Product> second = CompletableFuture.supplyAsync(() -> coalescer.getProduct(2L));
+
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(2L, second.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(List.of(List.of(1L, 2L)), calls);
+    }
+
+    @Test
+    @DisplayName("When ids do not fit in the waiting batch, then they are fetched in their own call right away")
+    void testOverflowingLookupIsFetchedSeparately() throws Exception {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(catalog(), Duration.ofMillis(500), 2, meterRegistry);
+
+        CompletableFuture<Product> first = CompletableFuture.supplyAsync(() -> coalescer.getProduct(1L));
+        Thread.sleep(50);
+        List<Product> second = coalescer.findProducts(List.of(2L, 3L));
+
+        assertEquals(List.of(2L, 3L), second.stream().map(Product::getId).toList());
+        assertEquals(List.of(List.of(2L, 3L)), calls);
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(List.of(List.of(2L, 3L), List.of(1L)), calls);
+    }
+
+    @Test
+    @DisplayName("When the catalog fails, then every waiting caller sees the error and the next lookup retries")
+    void testFailuresArePropagatedAndNotRemembered() {
+        ProductLookupCoalescer failing = new ProductLookupCoalescer(ids -> {
+            calls.add(ids);
+            throw new ExternalMicroserviceException("CATALOG MICROSERVICE EXCEPTION: 503", 503);
+        }, Duration.ofMillis(1), 100, meterRegistry);
+
+        ExternalMicroserviceException first = assertThrows(ExternalMicroserviceException.class, () -> failing.getProduct(1L));
+        assertThrows(ExternalMicroserviceException.class, () -> failing.getProduct(1L));
+
+        assertEquals(503, first.getStatusCode());
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    @DisplayName("When a product is missing from the catalog, then single lookups fail with 404 and batch lookups skip it")
+    void testMissingProducts() {
+        ProductLookupCoalescer coalescer = new ProductLookupCoalescer(ids -> List.of(product(1L)),
+                Duration.ofMillis(1), 100, meterRegistry);
+
+        ExternalMicroserviceException exception = assertThrows(ExternalMicroserviceException.class, () -> coalescer.getProduct(9L));
+
+        assertEquals(404, exception.getStatusCode());
+        assertEquals(List.of(1L), coalescer.findProducts(List.of(1L, 9L)).stream().map(Product::getId).toList());
+    }
+}
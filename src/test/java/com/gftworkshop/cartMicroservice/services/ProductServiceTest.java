@@ -2,7 +2,11 @@ package com.gftworkshop.cartMicroservice.services;
 
 import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
 import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.config.ResilienceConfig;
+import com.gftworkshop.cartMicroservice.config.ResilienceProperties;
 import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,9 +16,12 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClient;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -40,7 +47,10 @@ class ProductServiceTest {
                 "/product/{productId}",
                 "/catalog/products/{product_id}/price-checkout?quantity={quantity}",
                 "/catalog/products/byIds",
-                "/catalog/products/volumePromotion");
+                "/catalog/products/volumePromotion",
+                ResilienceConfig.guard("CATALOG", "catalog", new ResilienceProperties.Downstream(),
+                        CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry()),
+                new SimpleMeterRegistry(), false, Duration.ZERO, 100);
     }
 
     @Test
@@ -70,6 +80,31 @@ class ProductServiceTest {
         assertEquals(0, new BigDecimal("1200.00").compareTo(product.getPrice()));
     }
 
+    @Test
+    @DisplayName("When coalescing is enabled, then a product lookup is sent to the byIds endpoint")
+    void testGetProductByIdCoalesced() throws InterruptedException {
+        ProductService coalescing = new ProductService(RestClient.create(),
+                mockWebServer.url("/").toString(),
+                "/product/{productId}",
+                "/catalog/products/{product_id}/price-checkout?quantity={quantity}",
+                "/catalog/products/byIds",
+                "/catalog/products/volumePromotion",
+                ResilienceConfig.guard("CATALOG", "catalog", new ResilienceProperties.Downstream(),
+                        CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry()),
+                new SimpleMeterRegistry(), true, Duration.ofMillis(1), 100);
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("[{\"id\": 1, \"name\": \"Laptop\", \"price\": 1200.00}]")
+                .addHeader("Content-Type", "application/json"));
+
+        Product product = coalescing.getProductById(1L);
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("Laptop", product.getName());
+        assertEquals("POST", request.getMethod());
+        assertEquals("/catalog/products/byIds", request.getPath());
+        assertEquals("[1]", request.getBody().readUtf8());
+    }
+
     @Test
     @DisplayName("When fetching a product by ID and the product does not exist, then a 404 Not Found error is returned")
     void testGetProductByIdNotFound() {
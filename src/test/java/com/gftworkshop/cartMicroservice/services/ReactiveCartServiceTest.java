@@ -0,0 +1,126 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.api.dto.Country;
+import com.gftworkshop.cartMicroservice.api.dto.Product;
+import com.gftworkshop.cartMicroservice.api.dto.User;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartCalculator;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartContext;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartManager;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartValidator;
+import com.gftworkshop.cartMicroservice.cartmanagement.ShippingTierRegistry;
+import com.gftworkshop.cartMicroservice.cartmanagement.UserCountryCache;
+import com.gftworkshop.cartMicroservice.config.ShippingProperties;
+import com.gftworkshop.cartMicroservice.exceptions.CartProductInvalidQuantityException;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import com.gftworkshop.cartMicroservice.model.Cart;
+import com.gftworkshop.cartMicroservice.model.CartProduct;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ReactiveCartService Unit Tests")
+class ReactiveCartServiceTest {
+
+    private CartManager cartManager;
+    private UserService userService;
+    private ReactiveProductService productService;
+    private ReactiveUserService reactiveUserService;
+    private UserCountryCache userCountryCache;
+    private ReactiveCartService reactiveCartService;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        cartManager = mock(CartManager.class);
+        userService = mock(UserService.class);
+        productService = mock(ReactiveProductService.class);
+        reactiveUserService = mock(ReactiveUserService.class);
+        userCountryCache = new UserCountryCache(userService, new SimpleMeterRegistry(),
+                Duration.ofMinutes(10), 100, Duration.ofHours(1), 10);
+        CartCalculator cartCalculator = new CartCalculator(null, userCountryCache,
+                new ShippingTierRegistry(new ShippingProperties()), null, Runnable::run,
+                Duration.ofMillis(500), Duration.ofMillis(500));
+        reactiveCartService = new ReactiveCartService(cartManager, new CartValidator(null, null), cartCalculator,
+                userCountryCache, productService, reactiveUserService, Schedulers.immediate(),
+                Duration.ofMillis(200), Duration.ofMillis(200));
+
+        cart = Cart.builder().id(1L).userId(7L).cartProducts(new ArrayList<>(List.of(
+                CartProduct.builder().productId(1L).quantity(1).price(new BigDecimal("10")).build(),
+                CartProduct.builder().productId(2L).quantity(1).price(new BigDecimal("20")).build()
+        ))).build();
+        when(cartManager.fetchCartById(1L)).thenReturn(cart);
+        when(productService.findProductsByIds(List.of(1L, 2L))).thenReturn(Mono.just(List.of(
+                Product.builder().id(1L).name("Product 1").price(new BigDecimal("10")).currentStock(5).build(),
+                Product.builder().id(2L).name("Product 2").price(new BigDecimal("20")).currentStock(5).build())));
+        when(productService.getProductByIdWithDiscountedPrice(anyList())).thenReturn(Mono.just(List.of(
+                Product.builder().id(1L).price(new BigDecimal("10")).weight(1.0).build(),
+                Product.builder().id(2L).price(new BigDecimal("20")).weight(1.0).build())));
+    }
+
+    @Test
+    @DisplayName("When fetching a cart, then the products are refreshed and the total matches the blocking pipeline")
+    void testFetchValidatedCart() {
+        when(reactiveUserService.getUserById(7L))
+                .thenReturn(Mono.just(User.builder().id(7L).country(new Country(1L, 10.0)).build()));
+
+        StepVerifier.create(reactiveCartService.fetchValidatedCart(1L))
+                .assertNext(cartDto -> {
+                    assertEquals(1L, cartDto.getId());
+                    assertEquals(0, new BigDecimal("38").compareTo(cartDto.getTotalPrice()));
+                })
+                .verifyComplete();
+
+        verify(cartManager, times(1)).updateAndSaveCartProductInfo(argThat((CartContext context) ->
+                context.getProductMap().get(1L).getName().equals("Product 1")));
+        assertEquals(new Country(1L, 10.0), userCountryCache.getCachedCountry(7L).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("When the user's country is cached, then the user service is not called")
+    void testFetchValidatedCartUsesCachedCountry() {
+        userCountryCache.remember(7L, new Country(1L, 10.0));
+
+        StepVerifier.create(reactiveCartService.fetchValidatedCart(1L))
+                .assertNext(cartDto -> assertEquals(0, new BigDecimal("38").compareTo(cartDto.getTotalPrice())))
+                .verifyComplete();
+
+        verifyNoInteractions(reactiveUserService);
+    }
+
+    @Test
+    @DisplayName("When a product lacks stock, then the cart is not saved and the error is propagated")
+    void testFetchValidatedCartNotEnoughStock() {
+        cart.getCartProducts().get(0).setQuantity(50);
+
+        StepVerifier.create(reactiveCartService.fetchValidatedCart(1L))
+                .expectError(CartProductInvalidQuantityException.class)
+                .verify();
+
+        verify(cartManager, never()).updateAndSaveCartProductInfo(any(CartContext.class));
+    }
+
+    @Test
+    @DisplayName("When the user service does not answer in time, then an external microservice error is returned")
+    void testFetchValidatedCartUserTimeout() {
+        when(reactiveUserService.getUserById(7L)).thenReturn(Mono.never());
+
+        StepVerifier.create(reactiveCartService.fetchValidatedCart(1L))
+                .expectErrorMatches(error -> error instanceof ExternalMicroserviceException
+                        && error.getMessage().equals("USER MICROSERVICE EXCEPTION: no response within 200 ms"))
+                .verify(Duration.ofSeconds(5));
+    }
+}
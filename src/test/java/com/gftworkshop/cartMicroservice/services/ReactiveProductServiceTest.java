@@ -0,0 +1,78 @@
+package com.gftworkshop.cartMicroservice.services;
+
+import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.config.AppConfig;
+import com.gftworkshop.cartMicroservice.config.HttpClientProperties;
+import com.gftworkshop.cartMicroservice.config.ResilienceConfig;
+import com.gftworkshop.cartMicroservice.config.ResilienceProperties;
+import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("ReactiveProductService Unit Tests")
+class ReactiveProductServiceTest {
+
+    private MockWebServer mockWebServer;
+    private ReactiveProductService productService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        String baseUrl = mockWebServer.url("").toString().replaceAll("/$", "");
+        productService = new ReactiveProductService(
+                AppConfig.webClient("catalog-test", new HttpClientProperties.Client()),
+                baseUrl, "/catalog/products/byIds", "/catalog/products/volumePromotion",
+                ResilienceConfig.guard("CATALOG", "catalog", new ResilienceProperties.Downstream(),
+                        CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    @DisplayName("When fetching discounted prices, then the catalog array is decoded into products")
+    void testGetProductByIdWithDiscountedPrice() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("[{\"id\":1,\"price\":9.5,\"weight\":1.0},{\"id\":2,\"price\":20,\"weight\":2.0}]")
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(productService.getProductByIdWithDiscountedPrice(
+                        List.of(CartProductDto.builder().productId(1L).quantity(2).build())))
+                .assertNext(products -> {
+                    assertEquals(2, products.size());
+                    assertEquals(new BigDecimal("9.5"), products.get(0).getPrice());
+                })
+                .verifyComplete();
+
+        assertEquals("/catalog/products/volumePromotion", mockWebServer.takeRequest().getPath());
+    }
+
+    @Test
+    @DisplayName("When the catalog answers with a server error, then the status is kept on the exception")
+    void testFindProductsByIdsServerError() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503).setBody("down"));
+
+        StepVerifier.create(productService.findProductsByIds(List.of(1L)))
+                .expectErrorMatches(error -> error instanceof ExternalMicroserviceException exception
+                        && exception.getStatusCode() == 503
+                        && exception.getMessage().startsWith("CATALOG MICROSERVICE EXCEPTION"))
+                .verify();
+    }
+}
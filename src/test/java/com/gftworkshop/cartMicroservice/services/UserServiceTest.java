@@ -1,7 +1,12 @@
 package com.gftworkshop.cartMicroservice.services;
 
 import com.gftworkshop.cartMicroservice.api.dto.User;
+import com.gftworkshop.cartMicroservice.config.ResilienceConfig;
+import com.gftworkshop.cartMicroservice.config.ResilienceProperties;
 import com.gftworkshop.cartMicroservice.exceptions.ExternalMicroserviceException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
@@ -32,7 +37,9 @@ class UserServiceTest {
 
         userService = new UserService(restClient,
                 mockWebServer.url("/").toString(),
-                "/users/{userId}");
+                "/users/{userId}",
+                ResilienceConfig.guard("USER", "users", new ResilienceProperties.Downstream(),
+                        CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry()));
     }
 
     @Test
@@ -1,14 +1,16 @@
 package com.gftworkshop.cartMicroservice.services.impl;
 
 import com.gftworkshop.cartMicroservice.exceptions.CartNotFoundException;
-import com.gftworkshop.cartMicroservice.api.dto.CartProductDto;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartInvalidationBus;
 import com.gftworkshop.cartMicroservice.exceptions.CartProductInvalidQuantityException;
 import com.gftworkshop.cartMicroservice.exceptions.CartProductNotFoundException;
+import com.gftworkshop.cartMicroservice.exceptions.CartVersionConflictException;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
 import com.gftworkshop.cartMicroservice.repositories.CartProductRepository;
 import com.gftworkshop.cartMicroservice.repositories.CartRepository;
 import com.gftworkshop.cartMicroservice.services.CartService;
+import com.gftworkshop.cartMicroservice.services.RemovedCartProduct;
 import org.junit.Ignore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -29,6 +31,7 @@ class CartProductServiceImplTest {
     @Mock
     private CartProductRepository cartProductRepository;
     @Mock private CartRepository cartRepository;
+    @Mock private CartInvalidationBus cartInvalidationBus;
     @Mock
     private CartService cartService;
     @InjectMocks
@@ -52,7 +55,7 @@ class CartProductServiceImplTest {
     @DisplayName("Update CartProduct Quantity")
     class UpdateCartProductQuantityTests {
         @Test
-        @DisplayName("Given Product ID and New Quantity When Updated Then Return Rows Affected")
+        @DisplayName("Given Product ID and New Quantity When Updated Then Return New Cart Version")
         void updateQuantityTest() {
             Long id = 123L;
             int newQuantity = 5;
@@ -64,13 +67,13 @@ class CartProductServiceImplTest {
             cartProduct.setCart(cart);
 
             when(cartProductRepository.findById(id)).thenReturn(Optional.of(cartProduct));
-            when(cartRepository.findById(cart.getId())).thenReturn(Optional.of(cart));
-            when(cartProductRepository.updateQuantity(id, newQuantity)).thenReturn(1);
+            when(cartRepository.incrementVersion(456L, null)).thenReturn(2L);
 
-            int rowsAffected = cartProductService.updateQuantity(id, newQuantity);
+            long version = cartProductService.updateQuantity(id, newQuantity, null);
 
-            assertEquals(1, rowsAffected);
+            assertEquals(2L, version);
             verify(cartProductRepository).updateQuantity(id, newQuantity);
+            verify(cartInvalidationBus).publish(456L);
         }
 
 
@@ -81,7 +84,7 @@ class CartProductServiceImplTest {
             int quantity = -5;
 
             CartProductInvalidQuantityException exception = assertThrows(CartProductInvalidQuantityException.class, () -> {
-                cartProductService.updateQuantity(id, quantity);
+                cartProductService.updateQuantity(id, quantity, null);
             });
 
             assertEquals("The quantity must be higher than 0", exception.getMessage());
@@ -90,7 +93,7 @@ class CartProductServiceImplTest {
         }
 
         @Test
-        @DisplayName("Same Quantity When Updated Then Return 0 Rows Affected")
+        @DisplayName("Same Quantity When Updated Then Still Bump Cart Version")
         void updateQuantityNoChangesTest() {
             Long cartProductId = 123L;
             int currentQuantity = 5;
@@ -103,19 +106,18 @@ class CartProductServiceImplTest {
             cartProduct.setCart(cart);
 
             when(cartProductRepository.findById(cartProductId)).thenReturn(Optional.of(cartProduct));
-            when(cartRepository.findById(cart.getId())).thenReturn(Optional.of(cart));
 
-            when(cartProductRepository.updateQuantity(cartProductId, currentQuantity)).thenReturn(0);
+            when(cartRepository.incrementVersion(456L, null)).thenReturn(7L);
 
-            int rowsAffected = cartProductService.updateQuantity(cartProductId, currentQuantity);
+            long version = cartProductService.updateQuantity(cartProductId, currentQuantity, null);
 
-            assertEquals(0, rowsAffected);
+            assertEquals(7L, version);
             verify(cartProductRepository).updateQuantity(cartProductId, currentQuantity);
         }
 
 
         @Test
-        @DisplayName("Given Valid Quantity When Updated Then Return Updated Quantity")
+        @DisplayName("Given Valid Quantity When Updated Then Update Without Loading The Cart")
         void testUpdateQuantity_ValidQuantity_Success() {
             Long cartProductId = 1L;
             int quantity = 5;
@@ -129,15 +131,31 @@ class CartProductServiceImplTest {
             cartProduct.setQuantity(3);
 
             when(cartProductRepository.findById(cartProductId)).thenReturn(Optional.of(cartProduct));
-            when(cartRepository.findById(cart.getId())).thenReturn(Optional.of(cart));
 
-            when(cartProductRepository.updateQuantity(cartProductId, quantity)).thenReturn(quantity);
+            cartProductService.updateQuantity(cartProductId, quantity, null);
 
-            int updatedQuantity = cartProductService.updateQuantity(cartProductId, quantity);
-
-            assertEquals(quantity, updatedQuantity);
             verify(cartProductRepository).updateQuantity(cartProductId, quantity);
-            verify(cartRepository).findById(cart.getId());
+            verify(cartRepository).incrementVersion(cart.getId(), null);
+            verify(cartRepository, never()).findById(anyLong());
+        }
+
+        @Test
+        @DisplayName("Given Stale Cart Version " +
+                "Then Throws Conflict Without Updating")
+        void testUpdateQuantity_StaleCartVersion() {
+            Long cartProductId = 1L;
+            Cart cart = Cart.builder().id(1L).build();
+            CartProduct cartProduct = CartProduct.builder().id(cartProductId).cart(cart).quantity(3).build();
+
+            when(cartProductRepository.findById(cartProductId)).thenReturn(Optional.of(cartProduct));
+            doThrow(new CartVersionConflictException("Cart with ID 1 is at version 4, expected 3"))
+                    .when(cartRepository).incrementVersion(1L, 3L);
+
+            assertThrows(CartVersionConflictException.class, () -> {
+                cartProductService.updateQuantity(cartProductId, 5, 3L);
+            });
+
+            verify(cartProductRepository, never()).updateQuantity(anyLong(), anyInt());
         }
 
 
@@ -149,7 +167,7 @@ class CartProductServiceImplTest {
             int quantity = 0;
 
             assertThrows(CartProductInvalidQuantityException.class, () -> {
-                cartProductService.updateQuantity(id, quantity);
+                cartProductService.updateQuantity(id, quantity, null);
             });
 
             verify(cartRepository, never()).findById(anyLong());
@@ -164,7 +182,7 @@ class CartProductServiceImplTest {
             int quantity = -5;
 
             assertThrows(CartProductInvalidQuantityException.class, () -> {
-                cartProductService.updateQuantity(id, quantity);
+                cartProductService.updateQuantity(id, quantity, null);
             });
 
             verify(cartRepository, never()).findById(anyLong());
@@ -183,10 +201,11 @@ class CartProductServiceImplTest {
 
             when(cartProductRepository.findById(id)).thenReturn(Optional.of(cartProduct));
 
-            when(cartRepository.findById(cart.getId())).thenReturn(Optional.empty());
+            doThrow(new CartNotFoundException("Cart with ID 888 not found"))
+                    .when(cartRepository).incrementVersion(cart.getId(), null);
 
             assertThrows(CartNotFoundException.class, () -> {
-                cartProductService.updateQuantity(id, quantity);
+                cartProductService.updateQuantity(id, quantity, null);
             });
 
             verify(cartProductRepository, never()).updateQuantity(anyLong(), anyInt());
@@ -203,7 +222,7 @@ class CartProductServiceImplTest {
             when(cartRepository.findById(id)).thenReturn(Optional.empty());
 
             assertThrows(CartProductNotFoundException.class, () -> {
-                cartProductService.updateQuantity(id, quantity);
+                cartProductService.updateQuantity(id, quantity, null);
             });
 
             verify(cartProductRepository, never()).updateQuantity(anyLong(), anyInt());
@@ -219,12 +238,17 @@ class CartProductServiceImplTest {
         void removeProductTest() {
             CartProduct cartProductToRemove = new CartProduct();
             cartProductToRemove.setId(id);
+            cartProductToRemove.setCart(Cart.builder().id(456L).build());
             when(cartProductRepository.findById(id)).thenReturn(Optional.of(cartProductToRemove));
 
-            CartProductDto removedProduct = cartProductService.removeProduct(id);
+            when(cartRepository.incrementVersion(456L, null)).thenReturn(3L);
+
+            RemovedCartProduct removed = cartProductService.removeProduct(id, null);
 
+            verify(cartRepository, times(1)).incrementVersion(456L, null);
             verify(cartProductRepository, times(1)).deleteById(id);
-            assertEquals(cartProductToRemove.getId(), removedProduct.getId());
+            assertEquals(cartProductToRemove.getId(), removed.cartProduct().getId());
+            assertEquals(3L, removed.cartVersion());
         }
 
         @Test
@@ -234,7 +258,7 @@ class CartProductServiceImplTest {
             when(cartProductRepository.findById(id)).thenReturn(Optional.empty());
 
             CartProductNotFoundException exception = assertThrows(CartProductNotFoundException.class, () -> {
-                cartProductService.removeProduct(id);
+                cartProductService.removeProduct(id, null);
             });
 
             assertEquals("No se encontró el CartProduct con ID: " + id, exception.getMessage());
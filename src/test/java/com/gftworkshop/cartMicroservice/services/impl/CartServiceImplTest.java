@@ -2,11 +2,18 @@ package com.gftworkshop.cartMicroservice.services.impl;
 
 import com.gftworkshop.cartMicroservice.api.dto.CartDto;
 import com.gftworkshop.cartMicroservice.cartmanagement.CartCalculator;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartContext;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartFreshnessCache;
 import com.gftworkshop.cartMicroservice.cartmanagement.CartManager;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartPage;
+import com.gftworkshop.cartMicroservice.cartmanagement.CartPager;
 import com.gftworkshop.cartMicroservice.cartmanagement.CartValidator;
 import com.gftworkshop.cartMicroservice.entitymapper.EntityMapper;
+import com.gftworkshop.cartMicroservice.exceptions.CartProductInvalidQuantityException;
+import com.gftworkshop.cartMicroservice.exceptions.CartVersionConflictException;
 import com.gftworkshop.cartMicroservice.model.Cart;
 import com.gftworkshop.cartMicroservice.model.CartProduct;
+import com.gftworkshop.cartMicroservice.repositories.AbandonedCart;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,9 +25,13 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @DisplayName("CartServiceImpl Unit Tests")
@@ -36,6 +47,12 @@ class CartServiceImplTest {
     @Mock
     private CartCalculator cartCalculator;
 
+    @Mock
+    private CartPager cartPager;
+
+    @Mock
+    private CartFreshnessCache cartFreshnessCache;
+
     @InjectMocks
     private CartServiceImpl cartService;
 
@@ -43,15 +60,49 @@ class CartServiceImplTest {
     @DisplayName("Add Product To Cart Test")
     void addProductToCartTest() {
         // Given
-        CartProduct cartProduct = CartProduct.builder().build();
+        CartProduct cartProduct = CartProduct.builder().cart(Cart.builder().id(1L).build()).build();
+
+        when(cartValidator.validateProductStock(cartProduct)).thenReturn(10);
+        when(cartManager.handleCartProduct(cartProduct)).thenReturn(4);
 
         // When
-        cartService.addProductToCart(cartProduct);
+        cartService.addProductToCart(cartProduct, null);
 
         // Then
-        verify(cartManager, times(1)).checkForAbandonedCarts();
+        verify(cartManager, never()).identifyAbandonedCarts(any());
         verify(cartValidator, times(1)).validateProductStock(cartProduct);
         verify(cartManager, times(1)).handleCartProduct(cartProduct);
+        verify(cartValidator, times(1)).validateQuantity(4, 10);
+        verify(cartManager, times(1)).bumpCartVersion(1L, null);
+    }
+
+    @Test
+    @DisplayName("Add Product To Cart - a stale version is rejected before the line is written")
+    void addProductToCart_StaleVersion() {
+        // Given
+        CartProduct cartProduct = CartProduct.builder().cart(Cart.builder().id(1L).build()).build();
+        when(cartValidator.validateProductStock(cartProduct)).thenReturn(10);
+        doThrow(new CartVersionConflictException("Cart with ID 1 is at version 4, expected 3"))
+                .when(cartManager).bumpCartVersion(1L, 3L);
+
+        // Then
+        assertThrows(CartVersionConflictException.class, () -> cartService.addProductToCart(cartProduct, 3L));
+
+        // Verify
+        verify(cartManager, never()).handleCartProduct(any());
+    }
+
+    @Test
+    @DisplayName("Add Product To Cart - quantity already in the cart exceeds the stock")
+    void addProductToCart_TotalQuantityAboveStock() {
+        // Given
+        CartProduct cartProduct = CartProduct.builder().cart(Cart.builder().id(1L).build()).build();
+        when(cartValidator.validateProductStock(cartProduct)).thenReturn(5);
+        when(cartManager.handleCartProduct(cartProduct)).thenReturn(7);
+        doThrow(new CartProductInvalidQuantityException("Not enough stock")).when(cartValidator).validateQuantity(7, 5);
+
+        // Then
+        assertThrows(CartProductInvalidQuantityException.class, () -> cartService.addProductToCart(cartProduct, null));
     }
 
     @Test
@@ -75,17 +126,30 @@ class CartServiceImplTest {
     void emptyCartTest() {
         // Given
         Long cartId = 1L;
-        Cart cart = Cart.builder().build();
-        when(cartManager.fetchCartById(cartId)).thenReturn(cart);
 
         // When
-        cartService.emptyCart(cartId);
+        cartService.emptyCart(cartId, null);
+
+        // Then
+        verify(cartManager, never()).identifyAbandonedCarts(any());
+        verify(cartManager, times(1)).bumpCartVersion(cartId, null);
+        verify(cartManager, times(1)).clearCartProducts(cartId);
+        verify(cartManager, never()).fetchCartById(any());
+        verify(cartManager, never()).saveCart(any());
+    }
+
+    @Test
+    @DisplayName("Empty Cart - a stale version leaves the lines untouched")
+    void emptyCart_StaleVersion() {
+        // Given
+        doThrow(new CartVersionConflictException("Cart with ID 1 is at version 4, expected 3"))
+                .when(cartManager).bumpCartVersion(1L, 3L);
 
         // Then
-        verify(cartManager, times(1)).checkForAbandonedCarts();
-        verify(cartManager, times(1)).clearCartProducts(cartId, cart);
-        verify(cartManager, times(1)).updateCartTimestamp(cart);
-        verify(cartManager, times(1)).saveCart(cart);
+        assertThrows(CartVersionConflictException.class, () -> cartService.emptyCart(1L, 3L));
+
+        // Verify
+        verify(cartManager, never()).clearCartProducts(any());
     }
 
     @Test
@@ -103,7 +167,7 @@ class CartServiceImplTest {
 
         // Then
         assertEquals(expectedDtoList, result);
-        verify(cartManager, times(1)).logAbandonedCartsInfo(abandonedCarts, thresholdDate);
+        verify(cartManager, times(1)).logAbandonedCartsInfo(List.of(AbandonedCart.of(abandonedCarts.get(0))), thresholdDate);
     }
 
     @Test
@@ -127,33 +191,106 @@ class CartServiceImplTest {
     void fetchValidatedCartTest() {
         // Given
         Long cartId = 1L;
-        Cart cart = Cart.builder().build();
-        CartDto expectedCartDto = CartDto.builder().build();
-        when(cartManager.fetchCartById(cartId)).thenReturn(cart);
-        when(cartManager.prepareCartDto(cart)).thenReturn(expectedCartDto);
+        CartContext context = new CartContext(Cart.builder().id(cartId).build(), Collections.emptyMap());
+        CartDto expectedCartDto = CartDto.builder().version(3L).build();
+        when(cartManager.loadCartContext(cartId)).thenReturn(context);
+        when(cartManager.prepareCartDto(context)).thenReturn(expectedCartDto);
 
         // When
         CartDto result = cartService.fetchValidatedCart(cartId);
 
         // Then
         assertEquals(expectedCartDto, result);
-        verify(cartManager, times(1)).checkForAbandonedCarts();
-        verify(cartValidator, times(1)).validateCartProductsStock(cart);
-        verify(cartManager, times(1)).updateAndSaveCartProductInfo(cart);
+        verify(cartManager, never()).identifyAbandonedCarts(any());
+        verify(cartManager, never()).fetchCartById(cartId);
+        verify(cartValidator, times(1)).validateCartProductsStock(context);
+        verify(cartManager, times(1)).updateAndSaveCartProductInfo(context);
+        verify(cartFreshnessCache, times(1)).markValidated(cartId, 3L);
+    }
+
+    @Test
+    @DisplayName("Is Cart Unchanged - a recently validated version that is still current")
+    void isCartUnchangedTest() {
+        // Given
+        when(cartFreshnessCache.isValidated(1L, 3L)).thenReturn(true);
+        when(cartManager.fetchCartVersion(1L)).thenReturn(Optional.of(3L));
+
+        // Then
+        assertTrue(cartService.isCartUnchanged(1L, 3L));
+        verify(cartManager, never()).loadCartContext(any());
+    }
+
+    @Test
+    @DisplayName("Is Cart Unchanged - the cart was written since it was validated")
+    void isCartUnchanged_VersionMoved() {
+        // Given
+        when(cartFreshnessCache.isValidated(1L, 3L)).thenReturn(true);
+        when(cartManager.fetchCartVersion(1L)).thenReturn(Optional.of(4L));
+
+        // Then
+        assertFalse(cartService.isCartUnchanged(1L, 3L));
+    }
+
+    @Test
+    @DisplayName("Is Cart Unchanged - validation older than the staleness bound skips the version lookup")
+    void isCartUnchanged_StaleValidation() {
+        // Given
+        when(cartFreshnessCache.isValidated(1L, 3L)).thenReturn(false);
+
+        // Then
+        assertFalse(cartService.isCartUnchanged(1L, 3L));
+        verify(cartManager, never()).fetchCartVersion(any());
     }
 
     @Test
-    @DisplayName("Fetch All Carts Test")
-    void fetchAllCartsTest() {
+    @DisplayName("Fetch Cart Page Test")
+    void fetchCartPageTest() {
         // Given
-        List<Cart> expectedCarts = Collections.singletonList(Cart.builder().build());
-        when(cartManager.fetchAllCarts()).thenReturn(expectedCarts);
+        CartPage expectedPage = new CartPage(Collections.singletonList(Cart.builder().id(3L).build()), 3L);
+        when(cartPager.fetchPage(2L, 1)).thenReturn(expectedPage);
 
         // When
-        List<Cart> result = cartService.fetchAllCarts();
+        CartPage result = cartService.fetchCartPage(2L, 1);
 
         // Then
-        assertEquals(expectedCarts, result);
+        assertEquals(expectedPage, result);
+        verify(cartPager, times(1)).fetchPage(2L, 1);
+    }
+
+    @Test
+    @DisplayName("Add Products To Cart - validates once and saves the merged lines")
+    void addProductsToCartTest() {
+        // Given
+        List<CartProduct> lines = List.of(CartProduct.builder().productId(1L).quantity(2).build());
+        Map<Long, CartProduct> merged = Map.of(1L, lines.get(0));
+        Map<Long, CartProduct> existing = Map.of();
+        when(cartManager.mergeCartProducts(lines)).thenReturn(merged);
+        when(cartManager.findExistingCartProducts(1L, merged.keySet())).thenReturn(existing);
+
+        // When
+        cartService.addProductsToCart(1L, lines, null);
+
+        // Then
+        verify(cartManager, times(1)).bumpCartVersion(1L, null);
+        verify(cartValidator, times(1)).validateProductsStock(merged.values(), existing);
+        verify(cartManager, times(1)).saveCartProducts(1L, merged.values(), existing);
+    }
+
+    @Test
+    @DisplayName("Add Products To Cart - nothing is written when stock validation fails")
+    void addProductsToCart_StockValidationFailure() {
+        // Given
+        List<CartProduct> lines = List.of(CartProduct.builder().productId(1L).quantity(2).build());
+        Map<Long, CartProduct> merged = Map.of(1L, lines.get(0));
+        when(cartManager.mergeCartProducts(lines)).thenReturn(merged);
+        when(cartManager.findExistingCartProducts(1L, merged.keySet())).thenReturn(Map.of());
+        doThrow(new CartProductInvalidQuantityException("Not enough stock")).when(cartValidator).validateProductsStock(any(), any());
+
+        // Then
+        assertThrows(CartProductInvalidQuantityException.class, () -> cartService.addProductsToCart(1L, lines, null));
+
+        // Verify
+        verify(cartManager, never()).saveCartProducts(any(), any(), any());
     }
 
     @Test
@@ -164,7 +301,7 @@ class CartServiceImplTest {
         doThrow(new RuntimeException("Product stock validation failed")).when(cartValidator).validateProductStock(cartProduct);
 
         // Then
-        assertThrows(RuntimeException.class, () -> cartService.addProductToCart(cartProduct));
+        assertThrows(RuntimeException.class, () -> cartService.addProductToCart(cartProduct, null));
 
         // Verify
         verify(cartManager, never()).handleCartProduct(cartProduct);
@@ -183,7 +320,7 @@ class CartServiceImplTest {
         assertThrows(RuntimeException.class, () -> cartService.calculateCartTotal(cartId, userId));
 
         // Verify
-        verify(cartManager, never()).checkForAbandonedCarts();
+        verify(cartManager, never()).identifyAbandonedCarts(any());
     }
 
     @Test